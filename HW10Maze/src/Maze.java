@@ -1,14 +1,22 @@
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.NoSuchElementException;
 import tester.*;
 import javalib.impworld.*;
 import java.awt.Color;
 import javalib.worldimages.*;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 
 // Kruskal Maze Generator and Solver 
@@ -16,8 +24,13 @@ import java.util.function.Predicate;
 // once an automatic search begins, you cannot stop/switch searches until finished  
 // - press 'd' to start automatic depth first search
 // - press 'b' to start automatic breadth first search
+// - press 'a' to start automatic A* search, 't' for breadth first search from both ends
+// - press '+' or '-' to speed up or slow down the search
 // - if a search hasn't started, press 'm' to move manually. 
 // - After 'm' press, use arrow keys as normal to move
+// - press 'h' to show or hide the next step toward the exit
+// - press 'c' to view the maze through a camera that follows the player, then
+//   'i' 'j' 'k' 'l' to pan and '[' ']' to zoom out and in
 
 // TODO testing
 // TODO check private and public
@@ -26,6 +39,9 @@ import java.util.function.Predicate;
 
 // To represent a Cell in the maze with an x and y position and a size
 class Cell {
+  static final Color START_COLOR = new Color(0, 153, 0);
+  static final Color END_COLOR = new Color(102, 0, 153);
+
   private final int x;
   private final int y;
   private final int size;
@@ -66,65 +82,57 @@ class Cell {
     }
   }
 
+  // draws the wall on the given side of this cell with the shared image for its
+  // orientation
   public void drawMyWall(WorldScene w, String dir) {
     if (dir.equals("north")) {
-      w.placeImageXY(new RectangleImage(size, 1, OutlineMode.SOLID, Color.black),
+      w.placeImageXY(ImageCache.SHARED.rectangle(size, 1, Color.black),
           (this.x * size) + size / 2, this.y * size);
     }
     else if (dir.equals("south")) {
-      w.placeImageXY(new RectangleImage(size, 1, OutlineMode.SOLID, Color.black),
+      w.placeImageXY(ImageCache.SHARED.rectangle(size, 1, Color.black),
           (this.x * size) + size / 2, (this.y * size) + size);
     }
     else if (dir.equals("west")) {
-      w.placeImageXY(new RectangleImage(1, size, OutlineMode.SOLID, Color.black), this.x * size,
+      w.placeImageXY(ImageCache.SHARED.rectangle(1, size, Color.black), this.x * size,
           (this.y * size) + size / 2);
     }
     else if (dir.equals("east")) {
-      w.placeImageXY(new RectangleImage(1, size, OutlineMode.SOLID, Color.black),
+      w.placeImageXY(ImageCache.SHARED.rectangle(1, size, Color.black),
           (this.x * size) + size, (this.y * size) + size / 2);
     }
   }
 
   //renders this cell as the given color
   void drawCell(WorldScene w, Color c) {
-    w.placeImageXY(
-        new RectangleImage(this.size, this.size, OutlineMode.SOLID, c),
+    w.placeImageXY(ImageCache.SHARED.rectangle(this.size, this.size, c),
         (this.x * this.size) + (this.size / 2), (this.y * this.size) + this.size / 2);
   }
 
   // renders the start cell green and the end cell purple
   void drawStartAndEnd(WorldScene w, int width, int height) {
-    WorldImage start = new RectangleImage(this.size, this.size, OutlineMode.SOLID,
-        new Color(0, 153, 0));
-    WorldImage end = new RectangleImage(this.size, this.size, OutlineMode.SOLID,
-        new Color(102, 0, 153));
+    WorldImage start = ImageCache.SHARED.rectangle(this.size, this.size, START_COLOR);
+    WorldImage end = ImageCache.SHARED.rectangle(this.size, this.size, END_COLOR);
 
     w.placeImageXY(start, this.size / 2, this.size / 2);
     w.placeImageXY(end, width - this.size / 2, height - this.size / 2);
   }
 
   // checks if moving from this cell to the desired cell (based on given dx, dy)
-  // is valid, as in there exists a wall in the minimum spanning tree connecting this cell to the
-  // desired cell.
+  // is valid, as in the desired cell is in the grid and there is a passage in the grid
+  // connecting this cell to the desired cell.
   // returns either this cell or the desired cell based on the validity
-  Cell nextCell(ArrayList<Wall> tree, int dx, int dy, int width, int height) {
-    Cell next = new Cell(this.x + dx, this.y + dy);
-    if (!withinBounds(width, height)) {
+  Cell nextCell(MazeGrid grid, int dx, int dy) {
+    if (!grid.inBounds(this.x + dx, this.y + dy)) {
       return this;
     }
-    for (Wall w : tree) {
-      if (w.containsCell(this) && w.containsCell(next)) {
-        return next;
-      }
+    int to = grid.index(this.x + dx, this.y + dy);
+    if (grid.hasPassage(this.index(grid.width), to)) {
+      return grid.cellAt(to);
     }
     return this;
   }
 
-  // returns true if this cell is within the given boundaries
-  boolean withinBounds(int width, int height) {
-    return (this.x > 0 || this.y > 0 || this.x < width || this.y < height);
-  }
-
   //compares two cells based on x and y posn for sorting
   // ex: (0, 0).compare(0,1) = - 1
   int cellCompare(Cell other) {
@@ -152,6 +160,11 @@ class Cell {
   boolean isEnding(int width, int height) {
     return this.x == width - 1 && this.y == height - 1;
   }
+
+  // returns the row-major index of this cell in a grid of the given width
+  int index(int width) {
+    return this.y * width + this.x;
+  }
 }
 
 // To represent an edge in the graph that represents the maze
@@ -184,763 +197,3355 @@ class Wall {
     return (this.from.hashCode() * 10000) + this.to.hashCode();
   }
 
-  // returns true if this wall is connecting the given cell to another cell
-  boolean containsCell(Cell c) {
-    return this.from.equals(c) || this.to.equals(c);
-  }
-
-  // return the other point that this wall is connecting the given cell to
-  Cell otherPoint(Cell c) {
-    if (this.from.equals(c)) {
-      return this.to;
-    }
-    else if (this.to.equals(c)) {
-      return this.from;
-    }
-    else {
-      throw new NoSuchElementException("the given cell is not in this wall");
-    }
-  }
-
   // returns the difference between this wall's weight and the given wall's weight
   int weightDifference(Wall other) {
     return this.weight - other.weight;
   }
 
-  // checks if adding this edge would create a cycle
-  boolean alreadyConnected(HashMap<Cell, Cell> reps) {
-    Cell fromStart = this.find(reps, this.from); // find X
-    Cell toStart = this.find(reps, this.to); // find Y
+  // EFFECT: joins the components of this wall's cells in the given disjoint set, where
+  // cells are numbered by their index in a grid of the given width
+  // returns false if the cells were already connected (adding this edge would create a cycle)
+  boolean joinComponents(DisjointSet components, int width) {
+    return components.union(this.from.index(width), this.to.index(width));
+  }
 
-    // from and to have the same representative cell
-    if (fromStart.equals(toStart)) {
-      return true;
-    }
-    else {
-      return false;
-    }
+  // returns the string representation of the direction this wall going
+  String direction() {
+    return this.from.direction(this.to);
   }
 
-  // finds the representative node for the target cell
-  Cell find(HashMap<Cell, Cell> reps, Cell target) {
-    if (reps.get(target).equals(target)) {
-      return target;
-    }
-    else {
-      return find(reps, reps.get(target));
-    }
+  //renders this wall
+  public void drawWall(WorldScene w) {
+    String dir = this.direction();
+    this.from.drawMyWall(w, dir);
   }
 
-  // unions the representatives of the cell of the given wall
-  void union(HashMap<Cell, Cell> reps, Wall source) {
-    Cell repFrom = this.find(reps, source.from);
-    Cell repTo = this.find(reps, source.to);
-    reps.put(repTo, repFrom);
+  // EFFECT: opens the passage this wall stands for in the given grid
+  void carveInto(MazeGrid grid) {
+    grid.carve(this.from.index(grid.width), this.to.index(grid.width));
   }
 
-  // adds this wall's to and from cells to the allCells ArrayList
-  void addWallCells(ArrayList<Cell> cells) {
-    this.addUniqueCells(cells, this.to);
-    this.addUniqueCells(cells, this.from);
+  // EFFECT: appends this wall to the given edge list as cell indices in a grid of the
+  // given width
+  void addInto(EdgeList edges, int width) {
+    edges.add(this.from.index(width), this.to.index(width), this.weight);
   }
+}
 
-  // adds the given cell if it is unique in the ArrayList
-  void addUniqueCells(ArrayList<Cell> cells, Cell curr) {
-    boolean shouldAdd = true;
-    for (Cell c : cells) {
-      if (curr.equals(c)) {
-        shouldAdd = false;
-      }
+// To represent a partition of the cells 0 .. n - 1 into disjoint sets (union-find).
+// Unions hang the shallower tree under the deeper one and finds halve the path they
+// walk, so trees stay shallow and every operation runs in near-constant time
+class DisjointSet {
+  private final int[] parent;
+  // an upper bound on the height of the tree below each root, at most log2(n)
+  private final byte[] rank;
+
+  DisjointSet(int n) {
+    this.parent = new int[n];
+    this.rank = new byte[n];
+    for (int i = 0; i < n; i += 1) {
+      this.parent[i] = i;
     }
-    if (shouldAdd) {
-      cells.add(curr);
+  }
+
+  // returns the representative element of the set containing the given element
+  // EFFECT: points every other element on the walked path at its grandparent
+  int find(int elem) {
+    int curr = elem;
+    while (this.parent[curr] != curr) {
+      this.parent[curr] = this.parent[this.parent[curr]];
+      curr = this.parent[curr];
     }
+    return curr;
   }
 
-  // returns the string representation of the direction this wall going
-  String direction() {
-    return this.from.direction(this.to);
+  // returns true if the two given elements are in the same set
+  boolean connected(int a, int b) {
+    return this.find(a) == this.find(b);
   }
 
-  //renders this wall
-  public void drawWall(WorldScene w) {
-    String dir = this.direction();
-    this.from.drawMyWall(w, dir);
+  // returns the representative element of the set containing the given element without
+  // compressing the path, so many threads may call it while no union is running
+  int root(int elem) {
+    int curr = elem;
+    while (this.parent[curr] != curr) {
+      curr = this.parent[curr];
+    }
+    return curr;
+  }
+
+  // EFFECT: merges the sets containing the two given elements
+  // returns false if they were already in the same set
+  boolean union(int a, int b) {
+    int repA = this.find(a);
+    int repB = this.find(b);
+    if (repA == repB) {
+      return false;
+    }
+    if (this.rank[repA] < this.rank[repB]) {
+      this.parent[repA] = repB;
+    }
+    else if (this.rank[repA] > this.rank[repB]) {
+      this.parent[repB] = repA;
+    }
+    else {
+      this.parent[repB] = repA;
+      this.rank[repA] += 1;
+    }
+    return true;
   }
 }
 
-// To represent a graph made up of walls and cells that creates a solvable maze with
-// no cycles
-class Maze extends World {
-  private final int width;
-  private final int height;
-  private final Random rand;
-  private ArrayList<Wall> allWalls;
-  private ArrayList<Cell> allCells;
-  private HashMap<Cell, Cell> representatives;
-  private ArrayList<Wall> edgesInTree;
-  private Cell start;
-  private Cell end;
-  private ICollection<Cell> worklist;
-  private ArrayList<Cell> alreadySeen;
-  private HashMap<Cell, Cell> cameFromEdge;
-  private ArrayList<Cell> finalPath;
-  private boolean solved;
-  private boolean worldEnd;
-  private boolean shouldStart;
-  private Cell player;
-  private boolean manual;
+// To represent a fixed number of weighted edges as parallel primitive arrays, so an
+// edge is just its position in the list rather than a Wall and two Cell objects
+class EdgeList {
+  private final int[] from;
+  private final int[] to;
+  private final int[] weight;
+  private int size;
+
+  EdgeList(int capacity) {
+    this.from = new int[capacity];
+    this.to = new int[capacity];
+    this.weight = new int[capacity];
+    this.size = 0;
+  }
 
-  Maze(int width, int height) {
-    this.width = width;
-    this.height = height;
-    this.rand = new Random();
-    this.solved = false;
-    this.makeMaze();
-    this.worldEnd = false;
-    this.shouldStart = false;
-    this.manual = false;
+  // wraps already filled arrays of the same length as a full edge list
+  EdgeList(int[] from, int[] to, int[] weight) {
+    if (from.length != to.length || from.length != weight.length) {
+      throw new IllegalArgumentException("Every edge needs two cells and a weight");
+    }
+    this.from = from;
+    this.to = to;
+    this.weight = weight;
+    this.size = from.length;
   }
 
-  Maze(int width, int height, Random r) {
-    this.width = width;
-    this.height = height;
-    this.rand = new Random(this.width * this.height);
-    this.solved = false;
-    this.makeMaze();
-    this.worldEnd = false;
-    this.shouldStart = false;
-    this.manual = false;
+  // returns the number of edges added to this list
+  int size() {
+    return this.size;
   }
 
-  Maze(int width, int height, ArrayList<Wall> allWalls, ArrayList<Cell> allCells, ICollection<Cell> worklist, ArrayList<Cell> alreadySeen, 
-      HashMap<Cell, Cell> cameFromEdge) {
-    this.width = width;
-    this.height = height;
-    this.rand = new Random(this.width * this.height);
-    this.solved = false;
-    this.worldEnd = false;
-    this.shouldStart = false;
-    this.manual = false;
-    this.allWalls = allWalls;
-    this.allCells = allCells;
-    this.representatives = this.createMap(allCells);
-    this.edgesInTree = this.kruskal(allWalls);
-    this.start = allCells.get(0);
-    this.end = this.findEnd(allCells);
-    this.finalPath = new ArrayList<Cell>();
-    this.worklist = worklist;
-    //this.worklist.add(this.start);
-    this.alreadySeen = alreadySeen;
-    this.cameFromEdge = cameFromEdge;
-    this.player = this.findStart(allCells);
+  // returns the first cell of the given edge
+  int from(int edge) {
+    return this.from[edge];
   }
 
+  // returns the second cell of the given edge
+  int to(int edge) {
+    return this.to[edge];
+  }
 
-  // TODO ASK IF WE NEED TO TEST THIS
-  // initializes the maze's representations cells and walls 
-  void makeMaze() {
-    this.allWalls = this.createEdges();
-    this.allCells = this.getAllCells(allWalls);
-    this.representatives = this.createMap(allCells);
-    this.edgesInTree = this.kruskal(allWalls);
-    this.start = this.findStart(allCells);
-    this.end = this.findEnd(allCells);
-    this.finalPath = new ArrayList<>();
-    this.worklist = new Queue<Cell>();
-    this.worklist.add(this.start);
-    this.alreadySeen = new ArrayList<Cell>();
-    this.cameFromEdge = new HashMap<Cell, Cell>();
-    this.player = this.findStart(allCells);
+  // returns the weight of the given edge
+  int weight(int edge) {
+    return this.weight[edge];
   }
 
-  // creates an initial hash map where each Cell is linked to itself
-  HashMap<Cell, Cell> createMap(ArrayList<Cell> cells) {
-    HashMap<Cell, Cell> representatives = new HashMap<>();
-    for (Cell c : cells) {
-      representatives.put(c, c);
+  // EFFECT: appends an edge between the two given cells with the given weight
+  void add(int from, int to, int weight) {
+    if (this.size == this.from.length) {
+      throw new IllegalStateException("This edge list is full");
     }
-    return representatives;
+    this.from[this.size] = from;
+    this.to[this.size] = to;
+    this.weight[this.size] = weight;
+    this.size += 1;
   }
 
-  // Finds the initial starting cell located at (0, 0)
-  Cell findStart(ArrayList<Cell> allCells) {
-    Cell potentialCurr = allCells.get(0);
-    for (Cell c : allCells) {
-      if (c.isBeginning()) {
-        potentialCurr = c;
-      }
+  // returns the positions of this list's edges ordered from lowest to highest weight,
+  // with ties kept in list order
+  int[] sortedByWeight() {
+    if (this.size == 0) {
+      return new int[0];
+    }
+    int min = this.weight[0];
+    int max = this.weight[0];
+    for (int edge = 1; edge < this.size; edge += 1) {
+      min = Math.min(min, this.weight[edge]);
+      max = Math.max(max, this.weight[edge]);
+    }
+    // generated weights are drawn from [0, cells), a range about the size of the list,
+    // so a counting sort orders them in linear time
+    long range = (long) max - min + 1;
+    if (range <= 2L * this.size + 16) {
+      return this.countingSort(min, (int) range);
+    }
+    else {
+      return this.keySort();
     }
-    return potentialCurr;
   }
 
-  // Finds the final ending cell located at (width, height)
-  // in the bottom right corner
-  Cell findEnd(ArrayList<Cell> allCells) {
-    Cell potentialCurr = allCells.get(0);
+  // stably orders this list's edges by weight with one counter per possible weight in
+  // [min, min + range), in O(E + range)
+  int[] countingSort(int min, int range) {
+    // starts[w + 1] first counts the edges of weight min + w, then becomes the position
+    // of the first edge of that weight once summed
+    int[] starts = new int[range + 1];
+    for (int edge = 0; edge < this.size; edge += 1) {
+      starts[this.weight[edge] - min + 1] += 1;
+    }
+    for (int w = 1; w <= range; w += 1) {
+      starts[w] += starts[w - 1];
+    }
 
-    for (Cell c : allCells) {
-      if (c.isEnding(this.width, this.height)) {
-        potentialCurr = c;
-      }
+    int[] order = new int[this.size];
+    for (int edge = 0; edge < this.size; edge += 1) {
+      int bucket = this.weight[edge] - min;
+      order[starts[bucket]] = edge;
+      starts[bucket] += 1;
     }
-    return potentialCurr;
+    return order;
   }
 
-  // creates a list of all edges with randomized weights connecting two
-  // neighboring cells representing a grid
-  ArrayList<Wall> createEdges() {
-    int area = this.width * this.height;
-
-    ArrayList<Wall> edges = new ArrayList<Wall>();
+  // orders this list's edges by weight for weights too spread out to count, in
+  // O(E log E)
+  int[] keySort() {
+    long[] keys = this.keys();
+    Arrays.sort(keys);
 
-    for (int y = 0; y < this.height; y += 1) {
-      for (int x = 0; x < this.width; x += 1) {
-        Cell curr = new Cell(x, y);
-        // add wall only if its valid bounds
-        if (y > 0) {
-          Wall north = new Wall(curr, new Cell(x, y - 1), rand.nextInt(area));
-          addUniqueEdges(edges, north);
-        }
-        if (y < this.height - 1) {
-          Wall south = new Wall(curr, new Cell(x, y + 1), rand.nextInt(area));
-          addUniqueEdges(edges, south);
-        }
-        if (x < this.width - 1) {
-          Wall east = new Wall(curr, new Cell(x + 1, y), rand.nextInt(area));
-          addUniqueEdges(edges, east);
-        }
-        if (x > 0) {
-          Wall west = new Wall(curr, new Cell(x - 1, y), rand.nextInt(area));
-          addUniqueEdges(edges, west);
-        }
-      }
+    int[] order = new int[this.size];
+    for (int i = 0; i < this.size; i += 1) {
+      order[i] = this.edgeOf(keys[i]);
     }
-    return edges;
+    return order;
   }
 
-  // adds the given wall to the given list of walls if it is not already present
-  // (avoids two directed edges between two nodes in favor of one "undirected"
-  // edge)
-  void addUniqueEdges(ArrayList<Wall> walls, Wall curr) {
-    boolean shouldAdd = true;
-    for (Wall w : walls) {
-      if (curr.equals(w)) {
-        shouldAdd = false;
-      }
-    }
-    if (shouldAdd) {
-      walls.add(curr);
+  // returns one primitive key per edge packing (weight, position), so keys compare
+  // like edges ordered by weight with ties kept in list order and no two are equal
+  long[] keys() {
+    long[] keys = new long[this.size];
+    for (int edge = 0; edge < this.size; edge += 1) {
+      keys[edge] = ((long) this.weight[edge] << 32) | edge;
     }
+    return keys;
   }
 
-  // creates a minimum spanning tree using Kruskal's algorithm
-  ArrayList<Wall> kruskal(ArrayList<Wall> walls) {
-    ArrayList<Wall> worklist = new ArrayList<>();
-    for (int i = 0; i < walls.size(); i += 1) {
-      worklist.add(walls.get(i));
+  // returns the edge position packed into the given key
+  int edgeOf(long key) {
+    return (int) key;
+  }
+
+  // returns a Wall view of the given edge in the given grid
+  Wall wallAt(int edge, MazeGrid grid) {
+    return new Wall(grid.cellAt(this.from[edge]), grid.cellAt(this.to[edge]),
+        this.weight[edge]);
+  }
+
+  // returns Wall views of every edge in this list, in order
+  ArrayList<Wall> toWalls(MazeGrid grid) {
+    ArrayList<Wall> walls = new ArrayList<Wall>(this.size);
+    for (int edge = 0; edge < this.size; edge += 1) {
+      walls.add(this.wallAt(edge, grid));
     }
-    // sort the work list by lowest to highest weights
-    Collections.sort(worklist, new Comparator<Wall>() {
-      public int compare(Wall w1, Wall w2) {
-        if (w1.weightDifference(w2) > 0) {
-          return 1;
-        }
-        else if (w1.weightDifference(w2) < 0) {
-          return -1;
-        }
-        else {
-          return 0;
-        }
-      }
-    });
+    return walls;
+  }
+}
 
-    ArrayList<Wall> mst = new ArrayList<>();
+// To represent a growable list of ints, such as cell indices, without boxing them
+class IntList {
+  private int[] items;
+  private int size;
 
-    // while there is more than one tree
-    while (mst.size() < this.allCells.size() - 1) {
+  IntList() {
+    this(16);
+  }
 
-      Wall curr = worklist.get(0);
+  IntList(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+    this.size = 0;
+  }
 
-      // get the lowest edge and check if its already connected
-      if (curr.alreadyConnected(this.representatives)) {
-        worklist.remove(0); // edge is connected, discard it
-      }
-      else {
-        // non cyclic path, so add it to the mst
-        curr.union(this.representatives, curr);
-        mst.add(worklist.remove(0));
-      }
-    }
-    return mst;
+  // returns the number of items in this list
+  int size() {
+    return this.size;
   }
 
-  // collects all of the Cells from a list of Walls in an ArrayList
-  ArrayList<Cell> getAllCells(ArrayList<Wall> walls) {
-    ArrayList<Cell> cells = new ArrayList<>();
-    for (Wall w : walls) {
-      w.addWallCells(cells);
-    }
-    // sorts this list of cells from (0,0) (0,1) (0,2) ... (width, height)
-    Collections.sort(cells, new Comparator<Cell>() {
-      public int compare(Cell c1, Cell c2) {
-        return c1.cellCompare(c2);
-      }
-    }
-        );
-    return cells;
+  // returns true if this list has no items
+  boolean isEmpty() {
+    return this.size == 0;
   }
 
-  // returns true if the next element is the end of the maze (the maze is solved)
-  // otherwise, continues traversal for the next element in the search (either breadth first or
-  // depth first search)
-  boolean nextElem() {
-    if (!this.worklist.isEmpty()) {
-      Cell curr = this.worklist.remove();
-      if (alreadySeen.contains(curr)) {
-        // do nothing: we've already seen this one
-      }
-      else if (curr.equals(this.end)) {
-        this.solved = true;
-        this.solution();
-        return true;
-      }
-      else {
-        for (Wall w : this.edgesInTree) {
-          if (w.containsCell(curr)) {
-            this.worklist.add(w.otherPoint(curr));
-            this.cameFromEdge.putIfAbsent(w.otherPoint(curr), curr);
-          }
-        }
-        this.alreadySeen.add(curr);
-      }
+  // returns the item at the given position
+  int get(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("No item at index " + index);
     }
-    return false;
+    return this.items[index];
   }
 
-  // backtracks through the hash map cameFromEdge, which accumulated the path from
-  // start to finish, and populates the solution arraylist with the final solution path
-  void solution() {
-    Cell curr = this.end;
-
-    while (!curr.equals(start)) {
-      this.finalPath.add(curr);
-      curr = this.cameFromEdge.get(curr);
+  // EFFECT: appends the given item, doubling the backing array when it is full
+  void add(int item) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.size * 2);
     }
-    this.finalPath.add(curr);
-    this.solved = true;
-    this.worldEnd = true;
+    this.items[this.size] = item;
+    this.size += 1;
   }
 
-  // moves the player, depending on the validity of the move and the given
-  // dy and dx
-  void movePlayer(int dy, int dx) {
-    Cell move = this.player.nextCell(this.edgesInTree, dx, dy, this.width, this.height);
-    this.alreadySeen.add(this.player);
-    this.player = move;
+  // EFFECT: removes every item, keeping the backing array for reuse
+  void clear() {
+    this.size = 0;
+  }
 
-    if(move.equals(this.end)) {
-      this.solved = true;
-      this.worldEnd = true;
-    }
+  // returns the items of this list in a new array of exactly its size
+  int[] toArray() {
+    return Arrays.copyOf(this.items, this.size);
   }
+}
 
-  // renders the maze as a scene
-  public WorldScene makeScene() {
+// Represents a way of choosing which edges of a grid become the passages of a maze
+interface ITreeBuilder {
+  // returns the positions of the edges of a minimum spanning tree of the given edges
+  // over the cells 0 .. cells - 1, in order of increasing weight
+  int[] spanningTree(EdgeList edges, int cells);
+}
+
+// To build a minimum spanning tree with Kruskal's algorithm: walk the edges in weight
+// order with a cursor, keeping every edge that joins two separate components, until the
+// tree spans every cell
+class Kruskal implements ITreeBuilder {
+
+  public int[] spanningTree(EdgeList edges, int cells) {
+    // sort the edges by lowest to highest weights
+    int[] worklist = edges.sortedByWeight();
 
-    ArrayList<Wall> mazeWalls = new ArrayList<Wall>();
-    for (Wall w : this.allWalls) {
-      if (!(this.edgesInTree.contains(w))) {
-        mazeWalls.add(w);
+    int[] tree = new int[Math.max(cells - 1, 0)];
+    int added = 0;
+    DisjointSet components = new DisjointSet(cells);
+
+    // while there is more than one tree
+    for (int i = 0; i < worklist.length && added < tree.length; i += 1) {
+      int curr = worklist[i];
+
+      // non cyclic path, so add it to the tree; otherwise the edge is connected, skip it
+      if (components.union(edges.from(curr), edges.to(curr))) {
+        tree[added] = curr;
+        added += 1;
       }
     }
+    return Arrays.copyOf(tree, added);
+  }
+}
 
-    WorldScene w = new WorldScene(this.width * 15, this.height * 15);
+// To build exactly the tree Kruskal builds, using every core (Filter-Kruskal): the edges
+// are split around a pivot key, the light half is solved first, then the heavy edges
+// whose cells are already connected are discarded in parallel before the heavy half is
+// solved the same way. Partitions below a threshold are sorted in parallel and scanned
+// like sequential Kruskal. Edge keys are all distinct, so the minimum spanning tree is
+// unique and matches the sequential result edge for edge
+class FilterKruskal implements ITreeBuilder {
+  // the number of keys sampled to pick a pivot; odd, so the median is never the largest
+  private final int sample;
+  private final int threshold;
+
+  FilterKruskal() {
+    this(1 << 16);
+  }
 
-    for (int i = 0; i < this.allCells.size(); i += 1) {
-      this.allCells.get(i).drawCell(w, new Color(204, 204, 204));
-    }
+  FilterKruskal(int threshold) {
+    this.sample = 63;
+    this.threshold = Math.max(threshold, this.sample);
+  }
 
-    for (int i = 0; i < this.alreadySeen.size(); i += 1) {
-      this.alreadySeen.get(i).drawCell(w, new Color(51, 204, 255));
-    }
+  public int[] spanningTree(EdgeList edges, int cells) {
+    int[] tree = new int[Math.max(cells - 1, 0)];
+    int added = this.filterKruskal(edges, edges.keys(), new DisjointSet(cells), tree, 0);
+    return Arrays.copyOf(tree, added);
+  }
 
-    if (solved) {
-      for (int i = 0; i < this.finalPath.size(); i += 1) {
-        this.finalPath.get(i).drawCell(w, new Color(0, 0, 220));
+  // EFFECT: adds to the tree, after the given number already added, every edge among the
+  // given keys that joins two separate components, in key order
+  // returns the number of edges in the tree afterwards
+  int filterKruskal(EdgeList edges, long[] keys, DisjointSet components, int[] tree,
+      int added) {
+    if (added == tree.length || keys.length == 0) {
+      return added;
+    }
+    else if (keys.length <= this.threshold) {
+      Arrays.parallelSort(keys);
+      for (int i = 0; i < keys.length && added < tree.length; i += 1) {
+        int curr = edges.edgeOf(keys[i]);
+        if (components.union(edges.from(curr), edges.to(curr))) {
+          tree[added] = curr;
+          added += 1;
+        }
       }
+      return added;
     }
+    else {
+      long pivot = this.pivot(keys);
+      long[] light = Arrays.stream(keys).parallel().filter(k -> k <= pivot).toArray();
+      long[] heavy = Arrays.stream(keys).parallel().filter(k -> k > pivot).toArray();
 
-    for (int i = 0; i < mazeWalls.size(); i += 1) {
-      mazeWalls.get(i).drawWall(w);
+      int afterLight = this.filterKruskal(edges, light, components, tree, added);
+      if (afterLight == tree.length) {
+        return afterLight;
+      }
+      // no union runs while filtering, so the read-only root lookups can share the set
+      long[] crossing = Arrays.stream(heavy).parallel()
+          .filter(k -> components.root(edges.from(edges.edgeOf(k)))
+              != components.root(edges.to(edges.edgeOf(k))))
+          .toArray();
+      return this.filterKruskal(edges, crossing, components, tree, afterLight);
     }
+  }
 
-    this.allCells.get(0).drawStartAndEnd(w, this.width * 15, this.height * 15);
+  // returns the median of evenly spaced samples of the given keys, which has at least one
+  // larger key whenever there are more keys than samples
+  long pivot(long[] keys) {
+    long[] picked = new long[this.sample];
+    for (int i = 0; i < this.sample; i += 1) {
+      picked[i] = keys[(int) ((long) i * keys.length / this.sample)];
+    }
+    Arrays.sort(picked);
+    return picked[this.sample / 2];
+  }
+}
 
-    this.player.drawCell(w, new Color(255, 255, 153));
+// To build the same minimum spanning tree in Boruvka rounds, with no global sort: each
+// round every component finds its cheapest outgoing edge, searched in parallel across
+// a ForkJoinPool, and all of those edges join the tree at once. At least half of the
+// components merge away per round, so there are at most log2(cells) rounds, and edges
+// found inside one component are dropped as the rounds go. Edge keys are all distinct,
+// so the result is the unique minimum spanning tree that Kruskal builds: connected,
+// acyclic, and cells - 1 edges on a full grid
+class Boruvka implements ITreeBuilder {
+  private final ForkJoinPool pool;
+  // the number of cells or edges below which a task works through its range alone
+  private final int grain;
+
+  Boruvka() {
+    this(ForkJoinPool.commonPool(), 1 << 14);
+  }
 
-    return w;
+  Boruvka(ForkJoinPool pool, int grain) {
+    this.pool = pool;
+    this.grain = Math.max(grain, 1);
   }
 
-  // scene showing that the game ends
-  public WorldScene lastScene(String msg) {
+  public int[] spanningTree(EdgeList edges, int cells) {
+    // the edges that may still join two components
+    int[] live = new int[edges.size()];
+    for (int edge = 0; edge < live.length; edge += 1) {
+      live[edge] = edge;
+    }
+    int liveCount = live.length;
+
+    DisjointSet components = new DisjointSet(cells);
+    int[] label = new int[cells];
+    AtomicLongArray cheapest = new AtomicLongArray(cells);
+    long[] treeKeys = new long[Math.max(cells - 1, 0)];
+    int added = 0;
+    boolean merged = true;
+
+    while (added < treeKeys.length && merged) {
+      this.pool.invoke(new ComponentLabels(components, label, cheapest, 0, cells, this.grain));
+      this.pool.invoke(
+          new CheapestEdges(edges, live, label, cheapest, 0, liveCount, this.grain));
+
+      // join every component to the component across its cheapest edge
+      merged = false;
+      for (int cell = 0; cell < cells && added < treeKeys.length; cell += 1) {
+        long key = cheapest.get(cell);
+        if (key != Long.MAX_VALUE) {
+          int curr = edges.edgeOf(key);
+          if (components.union(edges.from(curr), edges.to(curr))) {
+            treeKeys[added] = key;
+            added += 1;
+            merged = true;
+          }
+        }
+      }
 
-    ArrayList<Wall> mazeWalls = new ArrayList<Wall>();
-    for (Wall w : this.allWalls) {
-      if (!(this.edgesInTree.contains(w))) {
-        mazeWalls.add(w);
+      // keep only the edges that crossed between components this round
+      int kept = 0;
+      for (int i = 0; i < liveCount; i += 1) {
+        if (live[i] >= 0) {
+          live[kept] = live[i];
+          kept += 1;
+        }
       }
+      liveCount = kept;
     }
-    WorldScene w = new WorldScene(this.width * 15, this.height * 15);
 
-    for (int i = 0; i < this.allCells.size(); i += 1) {
-      this.allCells.get(i).drawCell(w, new Color(204, 204, 204));
+    // report the tree in weight order like the other builders
+    Arrays.sort(treeKeys, 0, added);
+    int[] tree = new int[added];
+    for (int i = 0; i < added; i += 1) {
+      tree[i] = edges.edgeOf(treeKeys[i]);
     }
-    for (int i = 0; i < this.alreadySeen.size(); i += 1) {
-      this.alreadySeen.get(i).drawCell(w, new Color(51, 204, 255));
-    }
-    if (solved) {
-      for (int i = 0; i < this.finalPath.size(); i += 1) {
-        this.finalPath.get(i).drawCell(w, new Color(0, 0, 220));
+    return tree;
+  }
+}
+
+// To label every cell in a range with the root of its component and reset the cheapest
+// edge found for it, splitting the range across a ForkJoinPool
+class ComponentLabels extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  private final DisjointSet components;
+  private final int[] label;
+  private final AtomicLongArray cheapest;
+  private final int lo;
+  private final int hi;
+  private final int grain;
+
+  ComponentLabels(DisjointSet components, int[] label, AtomicLongArray cheapest, int lo,
+      int hi, int grain) {
+    this.components = components;
+    this.label = label;
+    this.cheapest = cheapest;
+    this.lo = lo;
+    this.hi = hi;
+    this.grain = grain;
+  }
+
+  // EFFECT: labels the cells in [lo, hi), forking halves while the range is large
+  protected void compute() {
+    if (this.hi - this.lo <= this.grain) {
+      for (int cell = this.lo; cell < this.hi; cell += 1) {
+        // no union runs during this phase, so read-only lookups can share the set
+        this.label[cell] = this.components.root(cell);
+        this.cheapest.set(cell, Long.MAX_VALUE);
       }
     }
-    for (int i = 0; i < mazeWalls.size(); i += 1) {
-      mazeWalls.get(i).drawWall(w);
+    else {
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(
+          new ComponentLabels(this.components, this.label, this.cheapest, this.lo, mid,
+              this.grain),
+          new ComponentLabels(this.components, this.label, this.cheapest, mid, this.hi,
+              this.grain));
     }
-    this.allCells.get(0).drawStartAndEnd(w, this.width * 15, this.height * 15);
-    w.placeImageXY(new TextImage("MAZE SOLVED", 24, Color.RED), (this.width * 15) / 2, 
-        (this.height * 15) / 2);
+  }
+}
 
-    return w;
+// To find, for a range of live edges, the cheapest edge leaving each component, splitting
+// the range across a ForkJoinPool. Edges found inside one component are marked dead (-1)
+class CheapestEdges extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  private final EdgeList edges;
+  private final int[] live;
+  private final int[] label;
+  private final AtomicLongArray cheapest;
+  private final int lo;
+  private final int hi;
+  private final int grain;
+
+  CheapestEdges(EdgeList edges, int[] live, int[] label, AtomicLongArray cheapest, int lo,
+      int hi, int grain) {
+    this.edges = edges;
+    this.live = live;
+    this.label = label;
+    this.cheapest = cheapest;
+    this.lo = lo;
+    this.hi = hi;
+    this.grain = grain;
   }
 
-  // continues the next step in the breadth first or depth first search for a path
-  // on each valid tick
-  public void onTick() {
-    if (this.worldEnd) {
-      this.endOfWorld("Maze Completed");
+  // EFFECT: offers every live edge in [lo, hi) to the components at both of its ends,
+  // forking halves while the range is large
+  protected void compute() {
+    if (this.hi - this.lo <= this.grain) {
+      for (int i = this.lo; i < this.hi; i += 1) {
+        int curr = this.live[i];
+        int fromLabel = this.label[this.edges.from(curr)];
+        int toLabel = this.label[this.edges.to(curr)];
+        if (fromLabel == toLabel) {
+          this.live[i] = -1;
+        }
+        else {
+          long key = ((long) this.edges.weight(curr) << 32) | curr;
+          this.offer(fromLabel, key);
+          this.offer(toLabel, key);
+        }
+      }
     }
     else {
-      if (this.shouldStart) {
-        this.nextElem();
-      }
+      int mid = (this.lo + this.hi) >>> 1;
+      invokeAll(
+          new CheapestEdges(this.edges, this.live, this.label, this.cheapest, this.lo, mid,
+              this.grain),
+          new CheapestEdges(this.edges, this.live, this.label, this.cheapest, mid, this.hi,
+              this.grain));
     }
   }
 
-  // starts either breadth first, depth first, or manual search for a path through the maze
-  // based on the given key press
+  // EFFECT: lowers the cheapest key recorded for the given component to the given key
+  void offer(int component, long key) {
+    long curr = this.cheapest.get(component);
+    while (key < curr && !this.cheapest.compareAndSet(component, curr, key)) {
+      curr = this.cheapest.get(component);
+    }
+  }
+}
+
+// To represent the passages of a maze compactly: a cell is its row-major int index
+// (y * width + x) and each passage to an east or south neighbor is a single bit, so a
+// maze costs two bits per cell instead of a Cell and Wall object graph
+class MazeGrid {
+  // the bits of a cell's links, one per direction with a passage out of the cell
+  static final int NORTH = 1;
+  static final int EAST = 2;
+  static final int SOUTH = 4;
+  static final int WEST = 8;
+
+  final int width;
+  final int height;
+  // bit i is set when cell i has a passage to the cell east of it
+  private final BitSet eastOpen;
+  // bit i is set when cell i has a passage to the cell south of it
+  private final BitSet southOpen;
+  // the directions cell i has passages in, so a search finds its neighbors in O(1)
+  private final byte[] links;
+
+  MazeGrid(int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A maze must have at least one cell");
+    }
+    this.width = width;
+    this.height = height;
+    this.eastOpen = new BitSet(width * height);
+    this.southOpen = new BitSet(width * height);
+    this.links = new byte[width * height];
+  }
+
+  // returns the number of cells in this grid
+  int size() {
+    return this.width * this.height;
+  }
+
+  // returns the index of the cell at the given position
+  int index(int x, int y) {
+    return y * this.width + x;
+  }
+
+  // returns the column of the cell with the given index
+  int xOf(int cell) {
+    return cell % this.width;
+  }
+
+  // returns the row of the cell with the given index
+  int yOf(int cell) {
+    return cell / this.width;
+  }
+
+  // returns true if the given position is inside this grid
+  boolean inBounds(int x, int y) {
+    return x >= 0 && y >= 0 && x < this.width && y < this.height;
+  }
+
+  // returns a Cell view of the cell with the given index
+  Cell cellAt(int cell) {
+    return new Cell(this.xOf(cell), this.yOf(cell));
+  }
+
+  // EFFECT: opens the passage between the two given neighboring cells
+  void carve(int a, int b) {
+    int lo = Math.min(a, b);
+    int hi = Math.max(a, b);
+    if (hi == lo + this.width) {
+      this.southOpen.set(lo);
+      this.links[lo] |= SOUTH;
+      this.links[hi] |= NORTH;
+    }
+    else if (hi == lo + 1 && this.xOf(lo) < this.width - 1) {
+      this.eastOpen.set(lo);
+      this.links[lo] |= EAST;
+      this.links[hi] |= WEST;
+    }
+    else {
+      throw new IllegalArgumentException("The given cells are not neighbors");
+    }
+  }
+
+  // returns the directions the given cell has passages in, as NORTH, EAST, SOUTH and
+  // WEST bits
+  int linksOf(int cell) {
+    return this.links[cell];
+  }
+
+  // returns the cell next to the given cell in the given direction
+  int neighbor(int cell, int direction) {
+    if (direction == NORTH) {
+      return cell - this.width;
+    }
+    else if (direction == EAST) {
+      return cell + 1;
+    }
+    else if (direction == SOUTH) {
+      return cell + this.width;
+    }
+    else if (direction == WEST) {
+      return cell - 1;
+    }
+    else {
+      throw new IllegalArgumentException("Not a direction: " + direction);
+    }
+  }
+
+  // returns true if the given cell has a passage to its east neighbor
+  boolean openEast(int cell) {
+    return this.eastOpen.get(cell);
+  }
+
+  // returns true if the given cell has a passage to its south neighbor
+  boolean openSouth(int cell) {
+    return this.southOpen.get(cell);
+  }
+
+  // returns true if there is a passage between the two given cells
+  boolean hasPassage(int a, int b) {
+    int lo = Math.min(a, b);
+    int hi = Math.max(a, b);
+    if (hi == lo + this.width) {
+      return this.southOpen.get(lo);
+    }
+    else if (hi == lo + 1 && this.xOf(lo) < this.width - 1) {
+      return this.eastOpen.get(lo);
+    }
+    else {
+      return false;
+    }
+  }
+
+  // counts the passages opened in this grid
+  int passageCount() {
+    return this.eastOpen.cardinality() + this.southOpen.cardinality();
+  }
+
+  // EFFECT: paints every wall between neighboring cells that has no passage through it
+  // onto the given canvas, with cells of the given size, where drawWalls would place it
+  void paintWalls(PixelCanvas canvas, int cellSize) {
+    for (int cell = 0; cell < this.size(); cell += 1) {
+      int left = this.xOf(cell) * cellSize;
+      int top = this.yOf(cell) * cellSize;
+      if (this.yOf(cell) < this.height - 1 && !this.southOpen.get(cell)) {
+        canvas.fillRect(left, top + cellSize, cellSize, 1, Color.black);
+      }
+      if (this.xOf(cell) < this.width - 1 && !this.eastOpen.get(cell)) {
+        canvas.fillRect(left + cellSize, top, 1, cellSize, Color.black);
+      }
+    }
+  }
+
+  // EFFECT: paints the given cell of the given size onto the given canvas in the given
+  // color, then the walls that lie on it: the wall west of it and the wall north of it
+  void paintCell(PixelCanvas canvas, int cell, int cellSize, Color c) {
+    this.paintCellAt(canvas, cell, this.xOf(cell) * cellSize, this.yOf(cell) * cellSize,
+        cellSize, c);
+  }
+
+  // EFFECT: paints the given cell like paintCell, with its top left corner at the given
+  // position of the canvas
+  void paintCellAt(PixelCanvas canvas, int cell, int left, int top, int cellSize, Color c) {
+    canvas.fillRect(left, top, cellSize, cellSize, c);
+    if (this.xOf(cell) > 0 && !this.eastOpen.get(cell - 1)) {
+      canvas.fillRect(left, top, 1, cellSize, Color.black);
+    }
+    if (this.yOf(cell) > 0 && !this.southOpen.get(cell - this.width)) {
+      canvas.fillRect(left, top, cellSize, 1, Color.black);
+    }
+  }
+
+  // renders every wall between neighboring cells that has no passage through it
+  void drawWalls(WorldScene w) {
+    for (int cell = 0; cell < this.size(); cell += 1) {
+      boolean hasSouth = this.yOf(cell) < this.height - 1;
+      boolean hasEast = this.xOf(cell) < this.width - 1;
+      if (hasSouth && !this.southOpen.get(cell)) {
+        this.cellAt(cell).drawMyWall(w, "south");
+      }
+      if (hasEast && !this.eastOpen.get(cell)) {
+        this.cellAt(cell).drawMyWall(w, "east");
+      }
+    }
+  }
+}
+
+// To represent a cache of solid rectangle images keyed by size, orientation and color,
+// so drawing the same rectangle again reuses one immutable image instead of making a
+// new one for every cell on every frame. The keys are packed into longs and kept in an
+// open-addressed table of primitive longs, so looking an image up allocates nothing
+class ImageCache {
+  // the cache every cell draws from
+  static final ImageCache SHARED = new ImageCache();
+
+  // the key of each slot, meaningful only where the slot has an image
+  private long[] keys;
+  // the image in each slot, or null for an empty slot
+  private WorldImage[] images;
+  // how many slots have an image
+  private int size;
+  // how many images this cache has made, and how many draws reused one instead
+  private long created;
+  private long hits;
+
+  ImageCache() {
+    this.keys = new long[16];
+    this.images = new WorldImage[16];
+    this.size = 0;
+    this.created = 0;
+    this.hits = 0;
+  }
+
+  // returns the solid rectangle of the given size and color, making it only the first
+  // time it is asked for
+  WorldImage rectangle(int width, int height, Color c) {
+    if (width < 0 || width > 0xFFFF || height < 0 || height > 0xFFFF) {
+      throw new IllegalArgumentException("Cannot cache a rectangle of size " + width + "x"
+          + height);
+    }
+    long key = ((long) width << 48) | ((long) height << 32) | (c.getRGB() & 0xFFFFFFFFL);
+    int slot = this.slotOf(key);
+    if (this.images[slot] != null) {
+      this.hits += 1;
+      return this.images[slot];
+    }
+    WorldImage image = new RectangleImage(width, height, OutlineMode.SOLID, c);
+    this.keys[slot] = key;
+    this.images[slot] = image;
+    this.size += 1;
+    this.created += 1;
+    if (this.size * 2 > this.images.length) {
+      this.grow();
+    }
+    return image;
+  }
+
+  // returns the slot holding the given key, or the empty slot it belongs in
+  int slotOf(long key) {
+    int mask = this.images.length - 1;
+    int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    while (this.images[slot] != null && this.keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  // EFFECT: doubles the table, putting every image back in the slot its key belongs in
+  void grow() {
+    long[] oldKeys = this.keys;
+    WorldImage[] oldImages = this.images;
+    this.keys = new long[oldKeys.length * 2];
+    this.images = new WorldImage[oldImages.length * 2];
+    for (int i = 0; i < oldImages.length; i += 1) {
+      if (oldImages[i] != null) {
+        int slot = this.slotOf(oldKeys[i]);
+        this.keys[slot] = oldKeys[i];
+        this.images[slot] = oldImages[i];
+      }
+    }
+  }
+
+  // returns how many images this cache has made
+  long created() {
+    return this.created;
+  }
+
+  // returns how many draws reused an image instead of making one
+  long hits() {
+    return this.hits;
+  }
+}
+
+// To represent an image drawn pixel by pixel, transparent until painted, so a layer that
+// would take many images to draw can be placed on a scene as one
+class PixelCanvas {
+  final int width;
+  final int height;
+  private final ComputedPixelImage image;
+
+  PixelCanvas(int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("A canvas must have at least one pixel");
+    }
+    this.width = width;
+    this.height = height;
+    this.image = new ComputedPixelImage(width, height);
+  }
+
+  // EFFECT: paints the part of the given rectangle that lies on this canvas the given color
+  void fillRect(int left, int top, int rectWidth, int rectHeight, Color c) {
+    int right = Math.min(left + rectWidth, this.width);
+    int bottom = Math.min(top + rectHeight, this.height);
+    for (int y = Math.max(top, 0); y < bottom; y += 1) {
+      for (int x = Math.max(left, 0); x < right; x += 1) {
+        this.image.setPixel(x, y, c);
+      }
+    }
+  }
+
+  // returns the color of the pixel at the given position
+  Color colorAt(int x, int y) {
+    return this.image.getPixel(x, y);
+  }
+
+  // EFFECT: places this canvas on the given scene with its top left corner at the given
+  // position
+  void drawOnto(WorldScene w, int left, int top) {
+    w.placeImageXY(this.image, left + this.width / 2, top + this.height / 2);
+  }
+}
+
+// To represent a window onto part of a maze: which cells are in view and how big each is
+// drawn, so a frame draws only the cells in view and costs the same however big the
+// maze is. Zoomed out past MIN_CELL the view becomes an overview, where each pixel shows
+// a block of cells from a MazePyramid level instead
+class Camera {
+  // the smallest and largest size a cell is drawn at, in pixels
+  static final int MIN_CELL = 2;
+  static final int MAX_CELL = 60;
+  // the level of the camera while each cell is drawn
+  static final int DETAIL = -1;
+
+  final int viewWidth;
+  final int viewHeight;
+  // the size cells are drawn at while each cell is drawn
+  private int cellSize;
+  // the pyramid level each pixel of the overview shows, or DETAIL
+  private int level;
+  // the top left corner of the view, in pixels of the whole maze drawn at this zoom
+  private int left;
+  private int top;
+
+  Camera(int viewWidth, int viewHeight, int cellSize) {
+    if (viewWidth < 1 || viewHeight < 1) {
+      throw new IllegalArgumentException("A view must have at least one pixel");
+    }
+    if (cellSize < MIN_CELL || cellSize > MAX_CELL) {
+      throw new IllegalArgumentException("Cells must be drawn between " + MIN_CELL + " and "
+          + MAX_CELL + " pixels wide");
+    }
+    this.viewWidth = viewWidth;
+    this.viewHeight = viewHeight;
+    this.cellSize = cellSize;
+    this.level = DETAIL;
+    this.left = 0;
+    this.top = 0;
+  }
+
+  // returns the size cells are drawn at while each cell is drawn
+  int cellSize() {
+    return this.cellSize;
+  }
+
+  // returns true if the view is an overview of blocks of cells
+  boolean isOverview() {
+    return this.level != DETAIL;
+  }
+
+  // returns the pyramid level the overview shows, or DETAIL
+  int level() {
+    return this.level;
+  }
+
+  // returns how many pixels a cell takes across at this zoom, less than one in the
+  // overview
+  double pixelsPerCell() {
+    if (this.isOverview()) {
+      return 1.0 / (1L << this.level);
+    }
+    return this.cellSize;
+  }
+
+  // returns how many pixels the given number of cells take at this zoom
+  long pixelsFor(int cells) {
+    if (this.isOverview()) {
+      return ((cells - 1) >> this.level) + 1;
+    }
+    return (long) cells * this.cellSize;
+  }
+
+  // returns the column or row of cells the given pixel of the whole maze falls in
+  int cellAt(long pixel) {
+    if (this.isOverview()) {
+      return (int) Math.min(Integer.MAX_VALUE, pixel << this.level);
+    }
+    return (int) (pixel / this.cellSize);
+  }
+
+  // returns the leftmost column of cells in view
+  int firstColumn() {
+    return this.cellAt(this.left);
+  }
+
+  // returns the rightmost column of cells of the given grid in view, even if only part
+  // of it is: the one under the last pixel of the view, or the last block of cells
+  // before the pixel past the view in the overview
+  int lastColumn(MazeGrid grid) {
+    if (this.isOverview()) {
+      return Math.min(grid.width - 1, this.cellAt((long) this.left + this.viewWidth) - 1);
+    }
+    return Math.min(grid.width - 1, this.cellAt(this.left + this.viewWidth - 1));
+  }
+
+  // returns the top row of cells in view
+  int firstRow() {
+    return this.cellAt(this.top);
+  }
+
+  // returns the bottom row of cells of the given grid in view, even if only part of it
+  // is, as lastColumn finds the rightmost column
+  int lastRow(MazeGrid grid) {
+    if (this.isOverview()) {
+      return Math.min(grid.height - 1, this.cellAt((long) this.top + this.viewHeight) - 1);
+    }
+    return Math.min(grid.height - 1, this.cellAt(this.top + this.viewHeight - 1));
+  }
+
+  // EFFECT: moves the view so the given cell is in the middle, as far as the edges of
+  // the maze allow
+  void centerOn(MazeGrid grid, int cell) {
+    this.lookAt(grid, grid.xOf(cell) + 0.5, grid.yOf(cell) + 0.5);
+  }
+
+  // EFFECT: moves the view so the given point, measured in cells, is in the middle, as
+  // far as the edges of the maze allow
+  void lookAt(MazeGrid grid, double x, double y) {
+    this.left = (int) (x * this.pixelsPerCell()) - this.viewWidth / 2;
+    this.top = (int) (y * this.pixelsPerCell()) - this.viewHeight / 2;
+    this.clamp(grid);
+  }
+
+  // EFFECT: moves the view by the given number of steps across and down: a cell at a
+  // time, or an eighth of the view at a time in the overview
+  void pan(MazeGrid grid, int dx, int dy) {
+    int step = this.cellSize;
+    if (this.isOverview()) {
+      step = Math.max(1, Math.min(this.viewWidth, this.viewHeight) / 8);
+    }
+    this.left += dx * step;
+    this.top += dy * step;
+    this.clamp(grid);
+  }
+
+  // EFFECT: shows half as many cells across, keeping the middle of the view where it is:
+  // the overview shows smaller blocks until it shows cells, then cells are drawn at
+  // MIN_CELL and doubled in size up to MAX_CELL
+  void zoomIn(MazeGrid grid) {
+    double middleX = this.middleColumn();
+    double middleY = this.middleRow();
+    if (this.level > 0) {
+      this.level -= 1;
+    }
+    else if (this.level == 0) {
+      this.level = DETAIL;
+      this.cellSize = MIN_CELL;
+    }
+    else {
+      this.cellSize = Math.min(this.cellSize * 2, MAX_CELL);
+    }
+    this.lookAt(grid, middleX, middleY);
+  }
+
+  // EFFECT: shows twice as many cells across, keeping the middle of the view where it
+  // is: cells are halved in size down to MIN_CELL, then the overview shows bigger blocks
+  // up to the one block at the top of the pyramid
+  void zoomOut(MazeGrid grid) {
+    double middleX = this.middleColumn();
+    double middleY = this.middleRow();
+    if (this.level == DETAIL && this.cellSize > MIN_CELL) {
+      this.cellSize = Math.max(this.cellSize / 2, MIN_CELL);
+    }
+    else if (this.level == DETAIL) {
+      this.level = 0;
+    }
+    else if ((Math.max(grid.width, grid.height) - 1) >> this.level > 0) {
+      this.level += 1;
+    }
+    this.lookAt(grid, middleX, middleY);
+  }
+
+  // returns the column, in cells, in the middle of the view
+  double middleColumn() {
+    return (this.left + this.viewWidth / 2) / this.pixelsPerCell();
+  }
+
+  // returns the row, in cells, in the middle of the view
+  double middleRow() {
+    return (this.top + this.viewHeight / 2) / this.pixelsPerCell();
+  }
+
+  // EFFECT: keeps the view on the maze, or at its top left corner if the maze is smaller
+  // than the view
+  void clamp(MazeGrid grid) {
+    long mazeWidth = this.pixelsFor(grid.width);
+    long mazeHeight = this.pixelsFor(grid.height);
+    this.left = (int) Math.max(0, Math.min(this.left, mazeWidth - this.viewWidth));
+    this.top = (int) Math.max(0, Math.min(this.top, mazeHeight - this.viewHeight));
+  }
+
+  // returns the cells of the given grid in view, painted in the colors given for each
+  // cell along with the walls on them; the part of the view past the maze is transparent
+  PixelCanvas render(MazeGrid grid, IntFunction<Color> colors) {
+    PixelCanvas canvas = new PixelCanvas(this.viewWidth, this.viewHeight);
+    for (int y = this.firstRow(); y <= this.lastRow(grid); y += 1) {
+      for (int x = this.firstColumn(); x <= this.lastColumn(grid); x += 1) {
+        int cell = grid.index(x, y);
+        grid.paintCellAt(canvas, cell, x * this.cellSize - this.left,
+            y * this.cellSize - this.top, this.cellSize, colors.apply(cell));
+      }
+    }
+    return canvas;
+  }
+
+  // returns the overview in view, one pixel per block of the given pyramid at this
+  // camera's level, in time proportional to the pixels of the view whatever the size of
+  // the maze; the part of the view past the maze is transparent
+  PixelCanvas renderOverview(MazePyramid pyramid) {
+    PixelCanvas canvas = new PixelCanvas(this.viewWidth, this.viewHeight);
+    int across = Math.min(this.viewWidth, pyramid.blocksAcross(this.level) - this.left);
+    int down = Math.min(this.viewHeight, pyramid.blocksDown(this.level) - this.top);
+    for (int y = 0; y < down; y += 1) {
+      for (int x = 0; x < across; x += 1) {
+        canvas.fillRect(x, y, 1, 1, pyramid.colorOf(this.level, this.left + x, this.top + y));
+      }
+    }
+    return canvas;
+  }
+
+  // EFFECT: paints the given cell of the given grid the given color on the given view,
+  // if it is in view: as a cell with its walls, or as the pixel of its block in the
+  // overview
+  void mark(PixelCanvas canvas, MazeGrid grid, int cell, Color c) {
+    if (this.isOverview()) {
+      canvas.fillRect((grid.xOf(cell) >> this.level) - this.left,
+          (grid.yOf(cell) >> this.level) - this.top, 1, 1, c);
+    }
+    else {
+      grid.paintCellAt(canvas, cell, grid.xOf(cell) * this.cellSize - this.left,
+          grid.yOf(cell) * this.cellSize - this.top, this.cellSize, c);
+    }
+  }
+}
+
+// To represent a maze summarized at every power of two: level 0 has a block for each
+// cell, and each block of the next level up sums the up to four blocks under it. Every
+// block counts the closed walls, the visited cells and the cells of the solution in it,
+// so an overview of any part of any maze is drawn one block per pixel without looking at
+// a single cell, and a visit updates one block per level
+class MazePyramid {
+  // how many shades of visited and of walls blocks are drawn in, less one
+  static final int SHADES = 16;
+
+  private final int width;
+  private final int height;
+  // the number of blocks across and down at each level
+  private final int[] across;
+  private final int[] down;
+  // the closed walls south and east of the cells in each block, at each level
+  private final int[][] walls;
+  // the visited cells in each block, at each level
+  private final int[][] visited;
+  // the cells of the solution in each block, at each level
+  private final int[][] solution;
+  // the color of a block by how many sixteenths of its cells are visited and of its
+  // walls are closed, made once so drawing a block makes no new colors
+  private final Color[][] palette;
+
+  // counts the closed walls of the given grid at every level, with nothing visited
+  MazePyramid(MazeGrid grid) {
+    this.width = grid.width;
+    this.height = grid.height;
+    int levels = 1;
+    while ((Math.max(this.width, this.height) - 1) >> (levels - 1) > 0) {
+      levels += 1;
+    }
+    this.across = new int[levels];
+    this.down = new int[levels];
+    this.walls = new int[levels][];
+    this.visited = new int[levels][];
+    this.solution = new int[levels][];
+    for (int level = 0; level < levels; level += 1) {
+      this.across[level] = ((this.width - 1) >> level) + 1;
+      this.down[level] = ((this.height - 1) >> level) + 1;
+      this.walls[level] = new int[this.across[level] * this.down[level]];
+      this.visited[level] = new int[this.across[level] * this.down[level]];
+      this.solution[level] = new int[this.across[level] * this.down[level]];
+    }
+
+    for (int cell = 0; cell < grid.size(); cell += 1) {
+      int closed = 0;
+      if (grid.yOf(cell) < this.height - 1 && !grid.openSouth(cell)) {
+        closed += 1;
+      }
+      if (grid.xOf(cell) < this.width - 1 && !grid.openEast(cell)) {
+        closed += 1;
+      }
+      this.walls[0][cell] = closed;
+    }
+    for (int level = 1; level < levels; level += 1) {
+      int below = this.across[level - 1];
+      for (int y = 0; y < this.down[level - 1]; y += 1) {
+        for (int x = 0; x < below; x += 1) {
+          this.walls[level][(y >> 1) * this.across[level] + (x >> 1)] +=
+              this.walls[level - 1][y * below + x];
+        }
+      }
+    }
+
+    this.palette = new Color[SHADES + 1][SHADES + 1];
+    for (int v = 0; v <= SHADES; v += 1) {
+      for (int w = 0; w <= SHADES; w += 1) {
+        this.palette[v][w] = this.shade(v, w);
+      }
+    }
+  }
+
+  // returns the color of a block with the given sixteenths of its cells visited and of
+  // its walls closed: from unvisited to visited, darkened by the walls
+  Color shade(int visitedShade, int wallShade) {
+    double darken = 1.0 - 0.5 * wallShade / SHADES;
+    double mix = (double) visitedShade / SHADES;
+    Color from = Maze.UNVISITED;
+    Color to = Maze.VISITED;
+    return new Color(
+        (int) ((from.getRed() + (to.getRed() - from.getRed()) * mix) * darken),
+        (int) ((from.getGreen() + (to.getGreen() - from.getGreen()) * mix) * darken),
+        (int) ((from.getBlue() + (to.getBlue() - from.getBlue()) * mix) * darken));
+  }
+
+  // returns the number of levels, the top one having a single block
+  int levels() {
+    return this.across.length;
+  }
+
+  // returns the number of blocks across at the given level
+  int blocksAcross(int level) {
+    return this.across[level];
+  }
+
+  // returns the number of blocks down at the given level
+  int blocksDown(int level) {
+    return this.down[level];
+  }
+
+  // returns the number of cells in the given block, fewer than 4^level at the edges
+  int cellsIn(int level, int x, int y) {
+    int cellsAcross = Math.min(this.width, (x + 1) << level) - (x << level);
+    int cellsDown = Math.min(this.height, (y + 1) << level) - (y << level);
+    return cellsAcross * cellsDown;
+  }
+
+  // returns the number of closed walls south and east of the cells in the given block
+  int wallsIn(int level, int x, int y) {
+    return this.walls[level][y * this.across[level] + x];
+  }
+
+  // returns the number of visited cells in the given block
+  int visitedIn(int level, int x, int y) {
+    return this.visited[level][y * this.across[level] + x];
+  }
+
+  // returns the number of cells of the solution in the given block
+  int solutionIn(int level, int x, int y) {
+    return this.solution[level][y * this.across[level] + x];
+  }
+
+  // returns the color the given block is drawn in: the solution's color if the solution
+  // passes through it, or else shaded by its visits and walls
+  Color colorOf(int level, int x, int y) {
+    if (this.solutionIn(level, x, y) > 0) {
+      return Maze.SOLUTION;
+    }
+    int cells = this.cellsIn(level, x, y);
+    int visitedShade = this.shadeOf(this.visitedIn(level, x, y), cells);
+    int wallShade = this.shadeOf(this.wallsIn(level, x, y), 2L * cells);
+    return this.palette[visitedShade][Math.min(wallShade, SHADES)];
+  }
+
+  // returns how many sixteenths of the given total the given count is, multiplying in
+  // long since the blocks near the top of a huge maze count too much to multiply in int
+  int shadeOf(int count, long total) {
+    return (int) ((long) count * SHADES / total);
+  }
+
+  // EFFECT: counts the given cell, which was not visited before, in the block over it at
+  // every level
+  void markVisited(int cell) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    for (int level = 0; level < this.levels(); level += 1) {
+      this.visited[level][(y >> level) * this.across[level] + (x >> level)] += 1;
+    }
+  }
+
+  // EFFECT: forgets every visit, for a new search
+  void clearVisits() {
+    for (int[] counts : this.visited) {
+      Arrays.fill(counts, 0);
+    }
+  }
+
+  // EFFECT: counts the cells of the given path as the solution in the block over each
+  // at every level, forgetting any solution counted before
+  void markSolution(IntList path) {
+    for (int[] counts : this.solution) {
+      Arrays.fill(counts, 0);
+    }
+    for (int i = 0; i < path.size(); i += 1) {
+      int x = path.get(i) % this.width;
+      int y = path.get(i) / this.width;
+      for (int level = 0; level < this.levels(); level += 1) {
+        this.solution[level][(y >> level) * this.across[level] + (x >> level)] += 1;
+      }
+    }
+  }
+}
+
+// To represent a maze drawn cell by cell into one persistent pixel image, so each frame
+// repaints only the cells whose color changed since the last one instead of every cell
+class MazeFrame {
+  private final MazeGrid grid;
+  private final int cellSize;
+  private final PixelCanvas canvas;
+  // the color each cell is painted
+  private final Color[] colors;
+  // the cell painted in the highlight color instead of its own, or UNSET
+  private int highlighted;
+  private Color highlight;
+  // how many times a cell has been repainted since the frame was made
+  private int repaints;
+
+  // paints every cell of the given grid the given color, then its walls
+  MazeFrame(MazeGrid grid, int cellSize, Color background) {
+    this.grid = grid;
+    this.cellSize = cellSize;
+    this.canvas = new PixelCanvas(grid.width * cellSize, grid.height * cellSize);
+    this.canvas.fillRect(0, 0, this.canvas.width, this.canvas.height, background);
+    grid.paintWalls(this.canvas, cellSize);
+    this.colors = new Color[grid.size()];
+    Arrays.fill(this.colors, background);
+    this.highlighted = ASearch.UNSET;
+    this.highlight = background;
+    this.repaints = 0;
+  }
+
+  // EFFECT: paints the given cell the given color, unless it is that color already; a
+  // highlighted cell keeps showing the highlight until it is cleared
+  void paint(int cell, Color c) {
+    if (!this.colors[cell].equals(c)) {
+      this.colors[cell] = c;
+      if (cell != this.highlighted) {
+        this.repaint(cell, c);
+      }
+    }
+  }
+
+  // EFFECT: paints the given cell the given color instead of its own until another cell
+  // is highlighted or the highlight is cleared, painting the cell highlighted before back
+  // in its own color
+  void highlight(int cell, Color c) {
+    if (cell == this.highlighted && c.equals(this.highlight)) {
+      return;
+    }
+    this.clearHighlight();
+    this.highlighted = cell;
+    this.highlight = c;
+    this.repaint(cell, c);
+  }
+
+  // EFFECT: paints the highlighted cell, if any, back in its own color
+  void clearHighlight() {
+    if (this.highlighted != ASearch.UNSET) {
+      int cell = this.highlighted;
+      this.highlighted = ASearch.UNSET;
+      this.repaint(cell, this.colors[cell]);
+    }
+  }
+
+  // EFFECT: repaints the given cell and the walls on it
+  void repaint(int cell, Color c) {
+    this.grid.paintCell(this.canvas, cell, this.cellSize, c);
+    this.repaints += 1;
+  }
+
+  // returns how many times a cell has been repainted since this frame was made
+  int repaints() {
+    return this.repaints;
+  }
+
+  // returns the color of the pixel at the given position
+  Color colorAt(int x, int y) {
+    return this.canvas.colorAt(x, y);
+  }
+
+  // EFFECT: places this frame on the given scene with its top left corner at the corner
+  // of the scene
+  void drawOnto(WorldScene w) {
+    this.canvas.drawOnto(w, 0, 0);
+  }
+}
+
+// To generate a perfect maze one row at a time with Eller's algorithm, holding only the
+// current row: which set (connected component so far) each column belongs to and the
+// row's passages. Rows can be streamed out as they are made, so the height is unbounded
+// and memory is O(width)
+class EllerRows {
+  private final int width;
+  private final SplittableRandom rand;
+  // the set of each column in the current row, or -1 for a column not yet in one;
+  // set ids are always in [0, width)
+  private final int[] set;
+  private final boolean[] eastOpen;
+  private final boolean[] southOpen;
+  private long rows;
+
+  // the same width and seed always give the same rows
+  EllerRows(int width, long seed) {
+    if (width < 1) {
+      throw new IllegalArgumentException("A maze must have at least one cell");
+    }
+    this.width = width;
+    this.rand = new SplittableRandom(seed);
+    this.set = new int[width];
+    Arrays.fill(this.set, -1);
+    this.eastOpen = new boolean[width];
+    this.southOpen = new boolean[width];
+    this.rows = 0;
+  }
+
+  // returns the number of rows generated so far
+  long rows() {
+    return this.rows;
+  }
+
+  // returns true if the given column of the current row has a passage east
+  boolean openEast(int x) {
+    return this.eastOpen[x];
+  }
+
+  // returns true if the given column of the current row has a passage south
+  boolean openSouth(int x) {
+    return this.southOpen[x];
+  }
+
+  // EFFECT: generates the passages of the next row; the last row joins every set that
+  // is still separate so the maze is connected, and has no passages south
+  void nextRow(boolean last) {
+    // columns with no passage from above start a set of their own
+    boolean[] used = new boolean[this.width];
+    for (int x = 0; x < this.width; x += 1) {
+      if (this.set[x] >= 0) {
+        used[this.set[x]] = true;
+      }
+    }
+    int fresh = 0;
+    for (int x = 0; x < this.width; x += 1) {
+      if (this.set[x] < 0) {
+        while (used[fresh]) {
+          fresh += 1;
+        }
+        this.set[x] = fresh;
+        used[fresh] = true;
+      }
+    }
+
+    // randomly join neighbors in different sets
+    DisjointSet joined = new DisjointSet(this.width);
+    for (int x = 0; x < this.width - 1; x += 1) {
+      boolean separate = joined.find(this.set[x]) != joined.find(this.set[x + 1]);
+      this.eastOpen[x] = separate && (last || this.rand.nextBoolean());
+      if (this.eastOpen[x]) {
+        joined.union(this.set[x], this.set[x + 1]);
+      }
+    }
+    this.eastOpen[this.width - 1] = false;
+    for (int x = 0; x < this.width; x += 1) {
+      this.set[x] = joined.find(this.set[x]);
+    }
+
+    if (last) {
+      Arrays.fill(this.southOpen, false);
+    }
+    else {
+      // randomly open passages south, making sure every set gets at least one
+      boolean[] goesSouth = new boolean[this.width];
+      int[] lastColumn = new int[this.width];
+      for (int x = 0; x < this.width; x += 1) {
+        this.southOpen[x] = this.rand.nextBoolean();
+        goesSouth[this.set[x]] = goesSouth[this.set[x]] || this.southOpen[x];
+        lastColumn[this.set[x]] = x;
+      }
+      for (int x = 0; x < this.width; x += 1) {
+        if (!goesSouth[this.set[x]]) {
+          this.southOpen[lastColumn[this.set[x]]] = true;
+          goesSouth[this.set[x]] = true;
+        }
+      }
+    }
+
+    // only the columns reached from above carry their set into the next row
+    for (int x = 0; x < this.width; x += 1) {
+      if (!this.southOpen[x]) {
+        this.set[x] = -1;
+      }
+    }
+    this.rows += 1;
+  }
+
+  // EFFECT: opens the passages of the current row in the given grid at the given row
+  void carveInto(MazeGrid grid, int y) {
+    for (int x = 0; x < this.width; x += 1) {
+      if (this.eastOpen[x]) {
+        grid.carve(grid.index(x, y), grid.index(x + 1, y));
+      }
+      if (this.southOpen[x]) {
+        grid.carve(grid.index(x, y), grid.index(x, y + 1));
+      }
+    }
+  }
+
+  // EFFECT: generates the given number of rows, writing each to the given output as
+  // text as soon as it is made: a cell is 2 characters wide, + marks a corner, | an
+  // east or west wall and -- a north or south wall
+  void writeTo(Appendable out, long height) throws IOException {
+    StringBuilder line = new StringBuilder(3 * this.width + 2);
+    line.append('+');
+    for (int x = 0; x < this.width; x += 1) {
+      line.append("--+");
+    }
+    out.append(line).append('\n');
+
+    for (long y = 0; y < height; y += 1) {
+      this.nextRow(y == height - 1);
+
+      line.setLength(0);
+      line.append('|');
+      for (int x = 0; x < this.width; x += 1) {
+        line.append(this.eastOpen[x] ? "   " : "  |");
+      }
+      out.append(line).append('\n');
+
+      line.setLength(0);
+      line.append('+');
+      for (int x = 0; x < this.width; x += 1) {
+        line.append(this.southOpen[x] ? "  +" : "--+");
+      }
+      out.append(line).append('\n');
+    }
+  }
+}
+
+// To represent an index over the spanning tree of a maze's passages that answers the
+// distance and the path between any two cells without searching. The tree is rooted at
+// one cell and every cell keeps its parent, its depth and a jump pointer to an ancestor
+// further up. Jump pointers follow the skew-binary scheme, so the jumps from any cell
+// reach any of its ancestors in O(log n) steps, the lowest common ancestor of two cells
+// takes O(log n) and a path takes time proportional to its length
+class PathIndex {
+  private final int[] parent;
+  private final int[] jump;
+  private final int[] depth;
+
+  // builds the index of the tree of the given grid's passages rooted at the given cell,
+  // in one breadth first pass so deep trees cannot overflow the stack
+  PathIndex(MazeGrid grid, int root) {
+    int size = grid.size();
+    this.parent = new int[size];
+    this.jump = new int[size];
+    this.depth = new int[size];
+    Arrays.fill(this.depth, -1);
+
+    // the cells in breadth first order, so every parent is placed before its children
+    int[] order = new int[size];
+    int placed = 0;
+    this.parent[root] = root;
+    this.jump[root] = root;
+    this.depth[root] = 0;
+    order[placed] = root;
+    placed += 1;
+    for (int i = 0; i < placed; i += 1) {
+      int cell = order[i];
+      int links = grid.linksOf(cell);
+      for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir <<= 1) {
+        if ((links & dir) != 0) {
+          int child = grid.neighbor(cell, dir);
+          if (this.depth[child] < 0) {
+            this.attach(child, cell);
+            order[placed] = child;
+            placed += 1;
+          }
+        }
+      }
+    }
+    if (placed < size) {
+      throw new IllegalArgumentException("The passages of this grid do not form a spanning tree");
+    }
+  }
+
+  // EFFECT: makes the given child a child of the given parent, jumping either as far as
+  // the parent's jump jumps again, when the parent's two jumps have equal length, or just
+  // to the parent
+  void attach(int child, int parent) {
+    int up = this.jump[parent];
+    int upUp = this.jump[up];
+    this.parent[child] = parent;
+    this.depth[child] = this.depth[parent] + 1;
+    if (this.depth[parent] - this.depth[up] == this.depth[up] - this.depth[upUp]) {
+      this.jump[child] = upUp;
+    }
+    else {
+      this.jump[child] = parent;
+    }
+  }
+
+  // returns the number of passages between the given cell and the root
+  int depth(int cell) {
+    this.checkCell(cell);
+    return this.depth[cell];
+  }
+
+  // returns the next cell from the given cell toward the root, or the root itself
+  int parentOf(int cell) {
+    this.checkCell(cell);
+    return this.parent[cell];
+  }
+
+  // returns the cells from the given cell up to the root, both included
+  IntList pathToRoot(int cell) {
+    this.checkCell(cell);
+    IntList path = new IntList(this.depth[cell] + 1);
+    path.add(cell);
+    while (this.parent[cell] != cell) {
+      cell = this.parent[cell];
+      path.add(cell);
+    }
+    return path;
+  }
+
+  // returns the ancestor of the given cell at the given depth
+  int ancestorAt(int cell, int depth) {
+    while (this.depth[cell] > depth) {
+      if (this.depth[this.jump[cell]] >= depth) {
+        cell = this.jump[cell];
+      }
+      else {
+        cell = this.parent[cell];
+      }
+    }
+    return cell;
+  }
+
+  // returns the deepest cell that is an ancestor of both given cells
+  int lowestCommonAncestor(int a, int b) {
+    this.checkCell(a);
+    this.checkCell(b);
+    if (this.depth[a] > this.depth[b]) {
+      a = this.ancestorAt(a, this.depth[b]);
+    }
+    else {
+      b = this.ancestorAt(b, this.depth[a]);
+    }
+    // cells at the same depth have jumps of the same length, so climb both together
+    while (a != b) {
+      if (this.jump[a] != this.jump[b]) {
+        a = this.jump[a];
+        b = this.jump[b];
+      }
+      else {
+        a = this.parent[a];
+        b = this.parent[b];
+      }
+    }
+    return a;
+  }
+
+  // returns the number of passages on the path between the given cells
+  int distance(int a, int b) {
+    int meet = this.lowestCommonAncestor(a, b);
+    return this.depth[a] + this.depth[b] - 2 * this.depth[meet];
+  }
+
+  // returns the cells on the path from the first given cell to the second, both included
+  IntList path(int from, int to) {
+    int meet = this.lowestCommonAncestor(from, to);
+    IntList path = new IntList(this.depth[from] + this.depth[to] - 2 * this.depth[meet] + 1);
+    for (int curr = from; curr != meet; curr = this.parent[curr]) {
+      path.add(curr);
+    }
+    path.add(meet);
+    // the rest of the path is the climb from the other cell, walked backwards
+    int[] climb = new int[this.depth[to] - this.depth[meet]];
+    int curr = to;
+    for (int i = climb.length - 1; i >= 0; i -= 1) {
+      climb[i] = curr;
+      curr = this.parent[curr];
+    }
+    for (int cell : climb) {
+      path.add(cell);
+    }
+    return path;
+  }
+
+  // EFFECT: throws if the given cell is not in the indexed tree
+  void checkCell(int cell) {
+    if (cell < 0 || cell >= this.parent.length) {
+      throw new IllegalArgumentException("Not a cell of this maze: " + cell);
+    }
+  }
+}
+
+// To represent a graph made up of walls and cells that creates a solvable maze with
+// no cycles
+class Maze extends World {
+  // the colors of cells that are unvisited, visited, on the solution, the hint and the
+  // player
+  static final Color UNVISITED = new Color(204, 204, 204);
+  static final Color VISITED = new Color(51, 204, 255);
+  static final Color SOLUTION = new Color(0, 0, 220);
+  static final Color HINT = new Color(255, 153, 51);
+  static final Color PLAYER = new Color(255, 255, 153);
+
+  private final int width;
+  private final int height;
+  // where the seed of every regenerated maze comes from
+  private final Random seeds;
+  private final ITreeBuilder treeBuilder;
+  // the seed this maze was generated from, if seeded
+  private long seed;
+  // false for a maze built by hand from walls, which no seed reproduces
+  private boolean seeded;
+  private MazeGrid grid;
+  // answers distance and path queries between any two cells of the maze, rooted at the
+  // end so each cell's depth is its distance to the exit and its parent the next step
+  private PathIndex pathIndex;
+  private Cell start;
+  private Cell end;
+  // the search being animated, which also records the cells the player visits
+  private ASearch search;
+  // the solution path from the end back to the start
+  private IntList finalPath;
+  private boolean solved;
+  private boolean worldEnd;
+  private boolean shouldStart;
+  private Cell player;
+  private boolean manual;
+  // the cells of the solution once it is found
+  private BitSet onSolution;
+  // the view the maze is drawn through, or null to draw the whole maze
+  private Camera camera;
+  // the counts of walls and visits the camera's overview is drawn from, or null until the
+  // overview is first drawn, the visit log and how much of it has been counted, and the
+  // solution counted
+  private MazePyramid pyramid;
+  private IntList pyramidVisits;
+  private int pyramidVisitCount;
+  private IntList pyramidPath;
+  // the cells and walls of this maze as last drawn, or null until the maze is first drawn
+  private MazeFrame frame;
+  // the visit log, solution and hint cell painted into the frame, and how many of the
+  // visits have been painted
+  private IntList framedVisits;
+  private int framedVisitCount;
+  private IntList framedPath;
+  private int framedHint;
+  // whether the next step from the player toward the exit is shown
+  private boolean showHint;
+  // the most search steps taken on one tick
+  private int stepsPerTick;
+  // the most time in nanoseconds the search may take on one tick, or 0 for no limit
+  private long frameBudget;
+
+  Maze(int width, int height) {
+    this(width, height, new Random());
+  }
+
+  // draws the seed of this maze, and of every maze regenerated from it, from the given
+  // random number generator
+  Maze(int width, int height, Random r) {
+    this(width, height, r, r.nextLong(), new Kruskal());
+  }
+
+  // generates the maze with the given seed; the same size and seed always give the same
+  // maze bit for bit
+  Maze(int width, int height, long seed) {
+    this(width, height, seed, new Kruskal());
+  }
+
+  // generates the maze with the given seed, building its spanning tree with the given
+  // builder, e.g. a FilterKruskal or Boruvka to generate large mazes on every core.
+  // Every builder gives the same maze for the same size and seed
+  Maze(int width, int height, long seed, ITreeBuilder treeBuilder) {
+    this(width, height, new Random(seed), seed, treeBuilder);
+  }
+
+  private Maze(int width, int height, Random seeds, long seed, ITreeBuilder treeBuilder) {
+    this.width = width;
+    this.height = height;
+    this.seeds = seeds;
+    this.treeBuilder = treeBuilder;
+    this.solved = false;
+    this.makeMaze(seed);
+    this.worldEnd = false;
+    this.shouldStart = false;
+    this.manual = false;
+    this.stepsPerTick = 1;
+    this.frameBudget = 0;
+    this.showHint = false;
+  }
+
+  Maze(int width, int height, ArrayList<Wall> allWalls, ArrayList<Cell> allCells, IIntCollection worklist, ArrayList<Cell> alreadySeen, 
+      HashMap<Cell, Cell> cameFromEdge) {
+    this.width = width;
+    this.height = height;
+    this.seeds = new Random(this.width * this.height);
+    this.treeBuilder = new Kruskal();
+    this.seeded = false;
+    this.solved = false;
+    this.worldEnd = false;
+    this.shouldStart = false;
+    this.manual = false;
+    this.stepsPerTick = 1;
+    this.frameBudget = 0;
+    this.showHint = false;
+    this.grid = new MazeGrid(width, height);
+    this.spanningTree(this.toEdgeList(allWalls));
+    this.start = allCells.get(0);
+    this.end = this.findEnd(allCells);
+    this.pathIndex = new PathIndex(this.grid, this.end.index(this.width));
+    this.finalPath = new IntList();
+    this.search = new WorklistSearch(this.grid, this.start.index(this.width),
+        this.end.index(this.width), worklist);
+    for (Cell c : alreadySeen) {
+      this.visit(c.index(this.width));
+    }
+    for (Cell c : cameFromEdge.keySet()) {
+      this.search.reach(c.index(this.width), cameFromEdge.get(c).index(this.width));
+    }
+    this.player = this.findStart(allCells);
+    this.onSolution = new BitSet();
+    this.camera = null;
+    this.frame = null;
+    this.pyramid = null;
+  }
+
+
+  // TODO ASK IF WE NEED TO TEST THIS
+  // initializes the maze's representations cells and walls from a fresh seed
+  void makeMaze() {
+    this.makeMaze(this.seeds.nextLong());
+  }
+
+  // initializes the maze's representations cells and walls from the given seed, so any
+  // maze served before can be regenerated from its seed instead of being stored
+  void makeMaze(long seed) {
+    this.seed = seed;
+    this.seeded = true;
+    EdgeList allWalls = this.createEdges();
+    this.grid = new MazeGrid(this.width, this.height);
+    this.spanningTree(allWalls);
+    this.start = this.grid.cellAt(0);
+    this.end = this.grid.cellAt(this.grid.size() - 1);
+    this.pathIndex = new PathIndex(this.grid, this.grid.size() - 1);
+    this.finalPath = new IntList();
+    this.search = this.newSearch("bfs");
+    this.player = this.start;
+    this.onSolution = new BitSet();
+    this.frame = null;
+    this.pyramid = null;
+    if (this.camera != null) {
+      this.camera.centerOn(this.grid, 0);
+    }
+  }
+
+  // returns the grid of passages of this maze
+  MazeGrid getGrid() {
+    return this.grid;
+  }
+
+  // returns the index of distances and paths between the cells of this maze
+  PathIndex getPathIndex() {
+    return this.pathIndex;
+  }
+
+  // returns true if this maze was generated from a seed, false if it was built by hand
+  boolean isSeeded() {
+    return this.seeded;
+  }
+
+  // returns the seed this maze was generated from
+  long getSeed() {
+    if (!this.seeded) {
+      throw new IllegalStateException("This maze was built by hand and has no seed");
+    }
+    return this.seed;
+  }
+
+  // Finds the initial starting cell located at (0, 0)
+  Cell findStart(ArrayList<Cell> allCells) {
+    Cell potentialCurr = allCells.get(0);
+    for (Cell c : allCells) {
+      if (c.isBeginning()) {
+        potentialCurr = c;
+      }
+    }
+    return potentialCurr;
+  }
+
+  // Finds the final ending cell located at (width, height)
+  // in the bottom right corner
+  Cell findEnd(ArrayList<Cell> allCells) {
+    Cell potentialCurr = allCells.get(0);
+
+    for (Cell c : allCells) {
+      if (c.isEnding(this.width, this.height)) {
+        potentialCurr = c;
+      }
+    }
+    return potentialCurr;
+  }
+
+  // creates the list of all edges with randomized weights connecting two
+  // neighboring cells representing a grid. Each undirected edge is emitted exactly
+  // once, from a cell to its south and then its east neighbor, so there is no
+  // de-duplication pass and this takes O(width * height) time and space.
+  // Every row draws its weights from its own generator split off this maze's seed in
+  // row order, so the rows are filled in parallel and still give the same weights
+  EdgeList createEdges() {
+    int count = (this.width - 1) * this.height + this.width * (this.height - 1);
+    int[] from = new int[count];
+    int[] to = new int[count];
+    int[] weight = new int[count];
+
+    SplittableRandom root = new SplittableRandom(this.seed);
+    SplittableRandom[] rowRands = new SplittableRandom[this.height];
+    for (int y = 0; y < this.height; y += 1) {
+      rowRands[y] = root.split();
+    }
+
+    IntStream.range(0, this.height).parallel()
+        .forEach(y -> this.createRowEdges(y, rowRands[y], from, to, weight));
+    return new EdgeList(from, to, weight);
+  }
+
+  // EFFECT: fills in the edges of the given row, which start at position
+  // y * (2 * width - 1) since every earlier row has width south and width - 1 east edges
+  void createRowEdges(int y, SplittableRandom rand, int[] from, int[] to, int[] weight) {
+    int area = this.width * this.height;
+    int edge = y * (2 * this.width - 1);
+    for (int x = 0; x < this.width; x += 1) {
+      int curr = y * this.width + x;
+      // add wall only if its valid bounds
+      if (y < this.height - 1) {
+        from[edge] = curr;
+        to[edge] = curr + this.width;
+        weight[edge] = rand.nextInt(area);
+        edge += 1;
+      }
+      if (x < this.width - 1) {
+        from[edge] = curr;
+        to[edge] = curr + 1;
+        weight[edge] = rand.nextInt(area);
+        edge += 1;
+      }
+    }
+  }
+
+  // converts the given walls into an edge list over this maze's cell indices
+  EdgeList toEdgeList(ArrayList<Wall> walls) {
+    EdgeList edges = new EdgeList(walls.size());
+    for (Wall w : walls) {
+      w.addInto(edges, this.width);
+    }
+    return edges;
+  }
+
+  // creates a minimum spanning tree of the given edges with this maze's tree builder
+  // (Kruskal's algorithm unless another was given) and returns its edges
+  // EFFECT: opens a passage in this maze's grid for every edge in the tree, which also
+  // links each cell to its neighbors in the tree
+  int[] spanningTree(EdgeList edges) {
+    int[] tree = this.treeBuilder.spanningTree(edges, this.grid.size());
+    for (int edge : tree) {
+      this.grid.carve(edges.from(edge), edges.to(edge));
+    }
+    return tree;
+  }
+
+  // lists every cell of this maze in row-major order: (0,0) (1,0) (2,0) ... (width, height)
+  // straight from the grid dimensions, in O(width * height)
+  ArrayList<Cell> getAllCells() {
+    ArrayList<Cell> cells = new ArrayList<>(this.grid.size());
+    for (int cell = 0; cell < this.grid.size(); cell += 1) {
+      cells.add(this.grid.cellAt(cell));
+    }
+    return cells;
+  }
+
+  // returns a new search from the start to the end of this maze with the given strategy:
+  // "bfs" for breadth first, "dfs" for depth first, "astar" for A* search or
+  // "bidirectional" for breadth first search from both ends
+  ASearch newSearch(String strategy) {
+    int start = this.start.index(this.width);
+    int end = this.end.index(this.width);
+    IIntCollection worklist;
+    if (strategy.equals("astar")) {
+      return new AStarSearch(this.grid, start, end);
+    }
+    else if (strategy.equals("bidirectional")) {
+      return new BidirectionalSearch(this.grid, start, end);
+    }
+    else if (strategy.equals("bfs")) {
+      worklist = new IntQueue();
+    }
+    else if (strategy.equals("dfs")) {
+      worklist = new IntStack();
+    }
+    else {
+      throw new IllegalArgumentException("Unknown search strategy: " + strategy);
+    }
+    worklist.add(start);
+    return new WorklistSearch(this.grid, start, end, worklist);
+  }
+
+  // solves this maze with the given strategy in one tight loop, without the world's tick
+  // loop and without touching the animated search, and returns the path and visit order
+  SolveResult solve(String strategy) {
+    return this.newSearch(strategy).run();
+  }
+
+  // returns true if the next element is the end of the maze (the maze is solved)
+  // otherwise, continues traversal for the next element in the search (either breadth first or
+  // depth first search)
+  boolean nextElem() {
+    if (!this.search.isFinished() && this.search.step()) {
+      this.solution();
+      return true;
+    }
+    return false;
+  }
+
+  // backtracks through the predecessors the search accumulated on its way from start to
+  // finish, and populates the solution list with the final solution path
+  void solution() {
+    this.finalPath = this.search.path();
+    for (int i = 0; i < this.finalPath.size(); i += 1) {
+      this.onSolution.set(this.finalPath.get(i));
+    }
+    this.solved = true;
+    this.worldEnd = true;
+  }
+
+  // returns the solution path found so far, from the end back to the start
+  IntList getFinalPath() {
+    return this.finalPath;
+  }
+
+  // EFFECT: marks the given cell visited, logging it if this is its first visit
+  void visit(int cell) {
+    this.search.visit(cell);
+  }
+
+  // returns the cells visited so far in the order they were first visited
+  IntList getVisitLog() {
+    return this.search.getVisitLog();
+  }
+
+  // returns the number of steps from the given cell to the exit
+  int distanceToExit(int cell) {
+    return this.pathIndex.depth(cell);
+  }
+
+  // returns the cell one step closer to the exit than the given cell, or the exit itself
+  int nextStepToExit(int cell) {
+    return this.pathIndex.parentOf(cell);
+  }
+
+  // returns the cells on the way from the given cell to the exit, both included
+  IntList solutionFrom(int cell) {
+    return this.pathIndex.pathToRoot(cell);
+  }
+
+  // returns the cell the player should move to next to reach the exit
+  int hint() {
+    return this.nextStepToExit(this.player.index(this.width));
+  }
+
+  // returns the number of steps left between the player and the exit
+  int remainingDistance() {
+    return this.distanceToExit(this.player.index(this.width));
+  }
+
+  // moves the player, depending on the validity of the move and the given
+  // dy and dx
+  void movePlayer(int dy, int dx) {
+    Cell move = this.player.nextCell(this.grid, dx, dy);
+    this.visit(this.player.index(this.width));
+    this.player = move;
+    if (this.camera != null) {
+      this.camera.centerOn(this.grid, move.index(this.width));
+    }
+
+    if(move.equals(this.end)) {
+      this.solved = true;
+      this.worldEnd = true;
+    }
+  }
+
+  // renders the maze as a scene
+  public WorldScene makeScene() {
+    if (this.camera != null) {
+      return this.cameraScene(this.player.index(this.width));
+    }
+    WorldScene w = new WorldScene(this.width * 15, this.height * 15);
+    this.drawMaze(w);
+    this.player.drawCell(w, PLAYER);
+    return w;
+  }
+
+  // scene showing that the game ends
+  public WorldScene lastScene(String msg) {
+    WorldScene w;
+    int sceneWidth = this.width * 15;
+    int sceneHeight = this.height * 15;
+    if (this.camera != null) {
+      w = this.cameraScene(ASearch.UNSET);
+      sceneWidth = this.camera.viewWidth;
+      sceneHeight = this.camera.viewHeight;
+    }
+    else {
+      w = new WorldScene(sceneWidth, sceneHeight);
+      this.drawMaze(w);
+    }
+    w.placeImageXY(new TextImage("MAZE SOLVED", 24, Color.RED), sceneWidth / 2,
+        sceneHeight / 2);
+    return w;
+  }
+
+  // returns the part of the maze in the camera's view as a scene the size of the view,
+  // drawing the player at the given cell unless it is UNSET
+  WorldScene cameraScene(int player) {
+    WorldScene w = new WorldScene(this.camera.viewWidth, this.camera.viewHeight);
+    this.cameraView(player).drawOnto(w, 0, 0);
+    return w;
+  }
+
+  // returns the part of the maze in the camera's view, drawing the player at the given
+  // cell unless it is UNSET. The overview shows the solution through the blocks the
+  // pyramid counts it in, and marks the hint, the start and end and the player over the
+  // blocks they fall in, layered as colorOf layers them
+  PixelCanvas cameraView(int player) {
+    int hint = ASearch.UNSET;
+    if (this.showHint) {
+      hint = this.hint();
+    }
+    int shownHint = hint;
+    if (!this.camera.isOverview()) {
+      return this.camera.render(this.grid, cell -> this.colorOf(cell, player, shownHint));
+    }
+
+    PixelCanvas overview = this.camera.renderOverview(this.pyramid());
+    if (hint != ASearch.UNSET) {
+      this.camera.mark(overview, this.grid, hint, HINT);
+    }
+    this.camera.mark(overview, this.grid, this.start.index(this.width), Cell.START_COLOR);
+    this.camera.mark(overview, this.grid, this.end.index(this.width), Cell.END_COLOR);
+    if (player != ASearch.UNSET) {
+      this.camera.mark(overview, this.grid, player, PLAYER);
+    }
+    return overview;
+  }
+
+  // returns the pyramid the overview is drawn from, up to date with the search
+  // EFFECT: counts in the pyramid only the cells visited since it was last brought up to
+  // date, starting the count over for a new search, and the solution once it is found
+  MazePyramid pyramid() {
+    IntList visitLog = this.search.getVisitLog();
+    if (this.pyramid == null) {
+      this.pyramid = new MazePyramid(this.grid);
+      this.pyramidVisits = visitLog;
+      this.pyramidVisitCount = 0;
+      this.pyramidPath = null;
+    }
+    else if (this.pyramidVisits != visitLog) {
+      this.pyramid.clearVisits();
+      this.pyramidVisits = visitLog;
+      this.pyramidVisitCount = 0;
+    }
+    for (int i = this.pyramidVisitCount; i < visitLog.size(); i += 1) {
+      this.pyramid.markVisited(visitLog.get(i));
+    }
+    this.pyramidVisitCount = visitLog.size();
+    if (this.solved && this.pyramidPath != this.finalPath) {
+      this.pyramid.markSolution(this.finalPath);
+      this.pyramidPath = this.finalPath;
+    }
+    else if (!this.solved && this.pyramidPath != null) {
+      this.pyramid.markSolution(new IntList());
+      this.pyramidPath = null;
+    }
+    return this.pyramid;
+  }
+
+  // returns the color the given cell is drawn in, layered as drawMaze and makeScene
+  // layer them: the player over the start and end, over the hint, over the solution, over
+  // the visited cells
+  Color colorOf(int cell, int player, int hint) {
+    if (cell == player) {
+      return PLAYER;
+    }
+    else if (cell == this.start.index(this.width)) {
+      return Cell.START_COLOR;
+    }
+    else if (cell == this.end.index(this.width)) {
+      return Cell.END_COLOR;
+    }
+    else if (cell == hint) {
+      return HINT;
+    }
+    else if (this.solved && this.onSolution.get(cell)) {
+      return SOLUTION;
+    }
+    else if (this.search.isVisited(cell)) {
+      return VISITED;
+    }
+    else {
+      return UNVISITED;
+    }
+  }
+
+  // returns the cell the player is in
+  int getPlayer() {
+    return this.player.index(this.width);
+  }
+
+  // returns the camera the maze is drawn through, or null if the whole maze is drawn
+  Camera getCamera() {
+    return this.camera;
+  }
+
+  // EFFECT: draws the maze onto the given scene: the cells and walls from the frame kept
+  // for this maze, brought up to date, then the start and end
+  void drawMaze(WorldScene w) {
+    this.frame().drawOnto(w);
+    this.start.drawStartAndEnd(w, this.width * 15, this.height * 15);
+  }
+
+  // returns the frame this maze is drawn into, up to date with the search
+  // EFFECT: paints into the frame only what changed since it was last brought up to date:
+  // the cells visited since, the solution once it is found and the hint if it moved.
+  // A new search, or a new maze, starts over from a fresh frame
+  MazeFrame frame() {
+    IntList visitLog = this.search.getVisitLog();
+    if (this.frame == null || this.framedVisits != visitLog) {
+      this.frame = new MazeFrame(this.grid, 15, UNVISITED);
+      this.framedVisits = visitLog;
+      this.framedVisitCount = 0;
+      this.framedPath = null;
+      this.framedHint = ASearch.UNSET;
+    }
+
+    for (int i = this.framedVisitCount; i < visitLog.size(); i += 1) {
+      this.frame.paint(visitLog.get(i), VISITED);
+    }
+    this.framedVisitCount = visitLog.size();
+
+    if (this.solved && this.framedPath != this.finalPath) {
+      for (int i = 0; i < this.finalPath.size(); i += 1) {
+        this.frame.paint(this.finalPath.get(i), SOLUTION);
+      }
+      this.framedPath = this.finalPath;
+    }
+
+    int hint = ASearch.UNSET;
+    if (this.showHint) {
+      hint = this.hint();
+    }
+    if (hint != this.framedHint) {
+      if (hint == ASearch.UNSET) {
+        this.frame.clearHighlight();
+      }
+      else {
+        this.frame.highlight(hint, HINT);
+      }
+      this.framedHint = hint;
+    }
+    return this.frame;
+  }
+
+  // EFFECT: sets how many search steps are taken on each tick
+  void setStepsPerTick(int steps) {
+    if (steps < 1) {
+      throw new IllegalArgumentException("Must take at least one step per tick");
+    }
+    this.stepsPerTick = steps;
+  }
+
+  // returns how many search steps are taken on each tick
+  int getStepsPerTick() {
+    return this.stepsPerTick;
+  }
+
+  // EFFECT: limits the time the search takes on each tick to the given number of
+  // nanoseconds, e.g. 8_000_000 to keep 8 ms of a frame; 0 removes the limit
+  void setFrameBudget(long nanos) {
+    if (nanos < 0) {
+      throw new IllegalArgumentException("A frame budget cannot be negative");
+    }
+    this.frameBudget = nanos;
+  }
+
+  // returns the number of steps taken, at most stepsPerTick
+  // EFFECT: advances the search until it solves the maze or runs out of cells, has taken
+  // stepsPerTick steps, or has used up the frame budget. The clock is only read every 64
+  // steps, since a step takes far less time than reading it
+  int advance() {
+    long started = System.nanoTime();
+    int steps = 0;
+    while (steps < this.stepsPerTick && !this.worldEnd && !this.search.isFinished()) {
+      this.nextElem();
+      steps += 1;
+      if (this.frameBudget > 0 && (steps & 63) == 0
+          && System.nanoTime() - started >= this.frameBudget) {
+        break;
+      }
+    }
+    return steps;
+  }
+
+  // continues the breadth first or depth first search for a path on each valid tick, by
+  // as many steps as fit in one tick
+  public void onTick() {
+    if (this.worldEnd) {
+      this.endOfWorld("Maze Completed");
+    }
+    else {
+      if (this.shouldStart) {
+        this.advance();
+      }
+    }
+  }
+
+  // starts either breadth first, depth first, or manual search for a path through the maze
+  // based on the given key press
   public void onKeyEvent(String s) {
     if (s.equals("b") && !this.shouldStart) {
-      this.worklist = new Queue<Cell>();
-      this.worklist.add(this.start);
+      this.search = this.newSearch("bfs");
+      this.shouldStart = true;
+    }
+    else if (s.equals("d") && !this.shouldStart) {
+      this.search = this.newSearch("dfs");
       this.shouldStart = true;
     }
-    else if (s.equals("d") && !this.shouldStart) {
-      this.worklist = new Stack<Cell>();
-      this.worklist.add(this.start);
-      this.shouldStart = true;
+    else if (s.equals("a") && !this.shouldStart) {
+      this.search = this.newSearch("astar");
+      this.shouldStart = true;
+    }
+    else if (s.equals("t") && !this.shouldStart) {
+      this.search = this.newSearch("bidirectional");
+      this.shouldStart = true;
+    }
+
+    else if (s.equals("m") && !this.shouldStart) {
+      this.manual = true;
+    }
+
+    else if (s.equals("r")) {
+      this.makeMaze();
+      this.shouldStart = false;
+    }
+
+    // shows or hides where the player should go next
+    else if (s.equals("h")) {
+      this.showHint = !this.showHint;
+    }
+
+    // switches between a camera at most 600 pixels square that follows the player and
+    // drawing the whole maze
+    else if (s.equals("c")) {
+      if (this.camera == null) {
+        this.camera = new Camera(Math.min(this.width * 15, 600),
+            Math.min(this.height * 15, 600), 15);
+        this.camera.centerOn(this.grid, this.player.index(this.width));
+      }
+      else {
+        this.camera = null;
+      }
+    }
+    else if (this.camera != null && s.equals("i")) {
+      this.camera.pan(this.grid, 0, -1);
+    }
+    else if (this.camera != null && s.equals("k")) {
+      this.camera.pan(this.grid, 0, 1);
+    }
+    else if (this.camera != null && s.equals("j")) {
+      this.camera.pan(this.grid, -1, 0);
+    }
+    else if (this.camera != null && s.equals("l")) {
+      this.camera.pan(this.grid, 1, 0);
+    }
+    else if (this.camera != null && s.equals("[")) {
+      this.camera.zoomOut(this.grid);
+    }
+    else if (this.camera != null && s.equals("]")) {
+      this.camera.zoomIn(this.grid);
+    }
+
+    // doubles or halves the speed of the animated search
+    else if (s.equals("+") && this.stepsPerTick <= Integer.MAX_VALUE / 2) {
+      this.stepsPerTick *= 2;
+    }
+    else if (s.equals("-") && this.stepsPerTick > 1) {
+      this.stepsPerTick /= 2;
+    }
+
+    // moving up means the player's y position is one less than it was before and
+    // the x position does not change.
+    // ex: if the player was in cell (2, 2), then after the move, the player is in
+    // cell (1, 2)
+    // therefore, (dy, dx) = (-1, 0)
+    else if (s.equals("up") && this.manual) {
+      this.movePlayer(-1, 0);
+    }
+    // moving down means the player's y position is one more than it was before and
+    // the x position does not change.
+    // ex: if the player was in cell (2, 2), then after the move, the player is in
+    // cell (3, 2)
+    // therefore, (dy, dx) = (1, 0)
+    else if (s.equals("down") && this.manual) {
+      this.movePlayer(1, 0);
+    }
+    // moving left means the player's y position does not change and the x position
+    // is one less than it was before.
+    // ex: if the player was in cell (2, 2), then after the move, the player is in
+    // cell (2, 1)
+    // therefore, (dy, dx) = (0, -1)
+    else if (s.equals("left") && this.manual) {
+      this.movePlayer(0, -1);
+    }
+    // moving left means the player's y position does not change and the x position
+    // is one more than it was before.
+    // ex: if the player was in cell (2, 2), then after the move, the player is in
+    // cell (2, 3)
+    // therefore, (dy, dx) = (0, 1)
+    else if (s.equals("right") && this.manual) {
+      this.movePlayer(0, 1);
+    }
+  }
+}
+
+// Represents a mutable collection of items
+interface ICollection<T> {
+  // Is this collection empty?
+  boolean isEmpty();
+
+  // EFFECT: adds the item to the collection
+  void add(T item);
+
+  // Returns the first item of the collection
+  // EFFECT: removes that first item
+  T remove();
+}
+
+// Represents an element of the deque which is either a sentinel or a node
+abstract class ANode<T> {
+
+  ANode<T> next;
+  ANode<T> prev;
+
+  ANode() {
+    this.next = this;
+    this.prev = this;
+  }
+
+  // counts the number of nodes ANode has including itself
+  int sizeHelp() {
+    return 1 + this.next.sizeHelp();
+  }
+
+  // returns this ANode's T data at the given index
+  abstract T removeHelp(int index);
+
+  // EFFECT: adds the given element at the given index by adjusting the next and
+  // previous around this ANode
+  void addHelp(T elem, int index) {
+    if (index == 0) {
+      ANode<T> oldNext = this.next;
+      ANode<T> newElem = new Node<T>(elem, oldNext, this);
+      this.next = newElem;
+      oldNext.prev = newElem;
+    }
+    else {
+      this.next.addHelp(elem, index - 1);
+    }
+  }
+
+  // EFFECT: updates this ANode's previous with the other's previous
+  void updatePrev(ANode<T> other) {
+    this.prev = other.prev;
+  }
+
+  // EFFECT: updates this ANode's next with the other's next
+  void updateNext(ANode<T> other) {
+    this.next = other.next;
+  }
+
+  // determines whether this deque contains the given element
+  // by iterating through the deque
+  boolean contains(T that) {
+    return this.next.containsHelp(that);
+  }
+
+  // helps determine whether this deque contains the given element
+  // by iterating through the deque
+  abstract boolean containsHelp(T that);
+}
+
+// To represent a node in a deque which has data, a next, and a previous
+class Node<T> extends ANode<T> {
+  T data;
+
+  Node(T data) {
+    super();
+    this.data = data;
+  }
+
+  Node(T data, ANode<T> next, ANode<T> prev) {
+    super();
+    this.data = data;
+    if (next == null) {
+      throw new IllegalArgumentException("Cannot have a null Node");
+    }
+    else {
+      if (prev == null) {
+        throw new IllegalArgumentException("Cannot have a null Node");
+      }
+      else {
+        this.prev = prev;
+      }
+      this.next = next;
+    }
+    next.prev = this;
+    prev.next = this;
+  }
+
+  // returns this Node's T data at the given index
+  T removeHelp(int index) {
+    if (index == 0) {
+      this.next.updatePrev(this);
+      this.prev.updateNext(this);
+      return this.data;
+    }
+    else {
+      return this.next.removeHelp(index - 1);
+    }
+  }
+
+  // helps determine if this element is in the deque by checking
+  // if it is in this node and if it isn't, passing it onto the next neighbor to check
+  boolean containsHelp(T that) {
+    if (this.data.equals(that)) {
+      return true;
+    }
+    else {
+      return this.next.containsHelp(that);
+    }
+  }
+
+}
+
+// To represent a header of the deque with a next and previous from which we can access all nodes
+class Sentinel<T> extends ANode<T> {
+
+  Sentinel(ANode<T> next, ANode<T> prev) {
+    super();
+    this.next = next;
+    this.prev = prev;
+  }
+
+  Sentinel() {
+    super();
+    next = this;
+    prev = this;
+  }
+
+  // overridden from abstract class:
+  // counts the number of Nodes this Sentinel "is" (none)
+  int sizeHelp() {
+    return 0;
+  }
+
+  // counts the number of Nodes this Sentinel has not including the header (so
+  // this)
+  int sizeHeader() {
+    return this.next.sizeHelp();
+  }
+
+  // continues removeHelp to this Sentinel's next
+  // since this Sentinel has no data T to return
+  T removeHelp(int index) {
+    return this.next.removeHelp(index);
+  }
+
+  // returns false because if the sentinel is reached in the helper
+  // method it is the second time we have seen the sentinel and therefore
+  // the given element is not in the deque
+  boolean containsHelp(T that) {
+    return false;
+  }
+}
+
+// To represent a deque with a sentinel from which we can access all of its nodes
+class Deque<T> {
+  Sentinel<T> header;
+
+  Deque(Sentinel<T> header) {
+    this.header = header;
+  }
+
+  Deque() {
+    this.header = new Sentinel<T>();
+  }
+
+  // counts the number of Nodes in this Deque, not including the header node
+  int size() {
+    return this.header.sizeHeader();
+  }
+
+  // inserts the given element at the front of this Deque
+  void addAtHead(T elem) {
+    new Node<T>(elem, this.header.next, this.header);
+  }
+
+  // inserts the given element at the back of this Deque
+  void addAtTail(T elem) {
+    new Node<T>(elem, this.header, this.header.prev);
+  }
+
+  // Removes the first node from this Deque
+  T removeFromHead() {
+    if (this.size() == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty list");
+    }
+    else {
+      return this.header.removeHelp(0);
+    }
+  }
+
+  // determines if this deque contains the given element 
+  boolean contains(T that) {
+    if (this.size() == 0) {
+      return false;
+    }
+    else {
+      return this.header.contains(that);
     }
+  }
+}
 
-    else if (s.equals("m") && !this.shouldStart) {
-      this.manual = true;
-    }
+// To represent a collection in which items are removed and added at the head
+// (first in first out)
+class Stack<T> implements ICollection<T> {
+  Deque<T> contents;
 
-    else if (s.equals("r")) {
-      this.makeMaze();
-      this.shouldStart = false;
+  Stack() {
+    this.contents = new Deque<T>();
+  }
+
+  // determines if this stack is empty
+  public boolean isEmpty() {
+    return this.contents.size() == 0;
+  }
+
+  // removes the node at the head
+  public T remove() {
+    return this.contents.removeFromHead();
+  }
+
+  // adds the given element at the head of the contents
+  public void add(T item) {
+    this.contents.addAtHead(item);
+  }
+}
+
+// To represent a collection in which items are removed at the head but
+// added at the tail (first in last out)
+class Queue<T> implements ICollection<T> {
+  Deque<T> contents;
+
+  Queue() {
+    this.contents = new Deque<T>();
+  }
+
+  // determines if this queue is empty
+  public boolean isEmpty() {
+    return this.contents.size() == 0;
+  }
+
+  // removes the node at the head of the contents
+  public T remove() {
+    return this.contents.removeFromHead();
+  }
+
+  // adds the given element at the tail of the contents
+  public void add(T item) {
+    this.contents.addAtTail(item);
+  }
+}
+
+// To represent a first in first out collection kept in a growable ring buffer, so that
+// adding, removing and checking for emptiness all take constant time
+// The searches work on cell ids and use IntQueue; this stays as the constant time
+// ICollection to use in place of the linked Queue for items that are not ints
+class ArrayQueue<T> implements ICollection<T> {
+  private Object[] items;
+  private int head;
+  private int size;
+
+  ArrayQueue() {
+    this(16);
+  }
+
+  ArrayQueue(int capacity) {
+    this.items = new Object[Math.max(capacity, 1)];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  // returns the number of items in this queue
+  int size() {
+    return this.size;
+  }
+
+  // determines if this queue is empty
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // EFFECT: adds the given item after the last item, growing the buffer when it is full
+  public void add(T item) {
+    if (this.size == this.items.length) {
+      this.grow();
     }
+    this.items[(this.head + this.size) % this.items.length] = item;
+    this.size += 1;
+  }
 
-    // moving up means the player's y position is one less than it was before and
-    // the x position does not change.
-    // ex: if the player was in cell (2, 2), then after the move, the player is in
-    // cell (1, 2)
-    // therefore, (dy, dx) = (-1, 0)
-    else if (s.equals("up") && this.manual) {
-      this.movePlayer(-1, 0);
+  // removes and returns the first item added that is still in this queue
+  @SuppressWarnings("unchecked")
+  public T remove() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty list");
     }
-    // moving down means the player's y position is one more than it was before and
-    // the x position does not change.
-    // ex: if the player was in cell (2, 2), then after the move, the player is in
-    // cell (3, 2)
-    // therefore, (dy, dx) = (1, 0)
-    else if (s.equals("down") && this.manual) {
-      this.movePlayer(1, 0);
+    T item = (T) this.items[this.head];
+    this.items[this.head] = null;
+    this.head = (this.head + 1) % this.items.length;
+    this.size -= 1;
+    return item;
+  }
+
+  // EFFECT: doubles the buffer, unwrapping the items so the head is at the front
+  void grow() {
+    Object[] bigger = new Object[this.items.length * 2];
+    for (int i = 0; i < this.size; i += 1) {
+      bigger[i] = this.items[(this.head + i) % this.items.length];
     }
-    // moving left means the player's y position does not change and the x position
-    // is one less than it was before.
-    // ex: if the player was in cell (2, 2), then after the move, the player is in
-    // cell (2, 1)
-    // therefore, (dy, dx) = (0, -1)
-    else if (s.equals("left") && this.manual) {
-      this.movePlayer(0, -1);
+    this.items = bigger;
+    this.head = 0;
+  }
+}
+
+// To represent a last in first out collection kept in a growable array, so that
+// adding, removing and checking for emptiness all take constant time
+// The searches work on cell ids and use IntStack; this stays as the constant time
+// ICollection to use in place of the linked Stack for items that are not ints
+class ArrayStack<T> implements ICollection<T> {
+  private Object[] items;
+  private int size;
+
+  ArrayStack() {
+    this(16);
+  }
+
+  ArrayStack(int capacity) {
+    this.items = new Object[Math.max(capacity, 1)];
+    this.size = 0;
+  }
+
+  // returns the number of items in this stack
+  int size() {
+    return this.size;
+  }
+
+  // determines if this stack is empty
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // EFFECT: adds the given item on top, doubling the array when it is full
+  public void add(T item) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.size * 2);
     }
-    // moving left means the player's y position does not change and the x position
-    // is one more than it was before.
-    // ex: if the player was in cell (2, 2), then after the move, the player is in
-    // cell (2, 3)
-    // therefore, (dy, dx) = (0, 1)
-    else if (s.equals("right") && this.manual) {
-      this.movePlayer(0, 1);
+    this.items[this.size] = item;
+    this.size += 1;
+  }
+
+  // removes and returns the last item added that is still on this stack
+  @SuppressWarnings("unchecked")
+  public T remove() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty list");
     }
+    this.size -= 1;
+    T item = (T) this.items[this.size];
+    this.items[this.size] = null;
+    return item;
   }
 }
 
-// Represents a mutable collection of items
-interface ICollection<T> {
+// Represents a mutable collection of cell ids, without boxing each one
+interface IIntCollection {
   // Is this collection empty?
   boolean isEmpty();
 
+  // returns the number of items in this collection
+  int size();
+
   // EFFECT: adds the item to the collection
-  void add(T item);
+  void add(int item);
 
   // Returns the first item of the collection
   // EFFECT: removes that first item
-  T remove();
+  int remove();
 }
 
-// Represents an element of the deque which is either a sentinel or a node
-abstract class ANode<T> {
+// To represent a first in first out collection of ints kept in a growable ring buffer
+class IntQueue implements IIntCollection {
+  private int[] items;
+  private int head;
+  private int size;
 
-  ANode<T> next;
-  ANode<T> prev;
+  IntQueue() {
+    this(16);
+  }
 
-  ANode() {
-    this.next = this;
-    this.prev = this;
+  IntQueue(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+    this.head = 0;
+    this.size = 0;
   }
 
-  // counts the number of nodes ANode has including itself
-  int sizeHelp() {
-    return 1 + this.next.sizeHelp();
+  // returns the number of items in this queue
+  public int size() {
+    return this.size;
   }
 
-  // returns this ANode's T data at the given index
-  abstract T removeHelp(int index);
+  // determines if this queue is empty
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
 
-  // EFFECT: adds the given element at the given index by adjusting the next and
-  // previous around this ANode
-  void addHelp(T elem, int index) {
-    if (index == 0) {
-      ANode<T> oldNext = this.next;
-      ANode<T> newElem = new Node<T>(elem, oldNext, this);
-      this.next = newElem;
-      oldNext.prev = newElem;
+  // EFFECT: adds the given item after the last item, growing the buffer when it is full
+  public void add(int item) {
+    if (this.size == this.items.length) {
+      this.grow();
     }
-    else {
-      this.next.addHelp(elem, index - 1);
+    this.items[(this.head + this.size) % this.items.length] = item;
+    this.size += 1;
+  }
+
+  // removes and returns the first item added that is still in this queue
+  public int remove() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty list");
     }
+    int item = this.items[this.head];
+    this.head = (this.head + 1) % this.items.length;
+    this.size -= 1;
+    return item;
   }
 
-  // EFFECT: updates this ANode's previous with the other's previous
-  void updatePrev(ANode<T> other) {
-    this.prev = other.prev;
+  // EFFECT: doubles the buffer, unwrapping the items so the head is at the front
+  void grow() {
+    int[] bigger = new int[this.items.length * 2];
+    for (int i = 0; i < this.size; i += 1) {
+      bigger[i] = this.items[(this.head + i) % this.items.length];
+    }
+    this.items = bigger;
+    this.head = 0;
   }
+}
 
-  // EFFECT: updates this ANode's next with the other's next
-  void updateNext(ANode<T> other) {
-    this.next = other.next;
+// To represent a last in first out collection of ints kept in a growable array
+class IntStack implements IIntCollection {
+  private int[] items;
+  private int size;
+
+  IntStack() {
+    this(16);
   }
 
-  // determines whether this deque contains the given element
-  // by iterating through the deque
-  boolean contains(T that) {
-    return this.next.containsHelp(that);
+  IntStack(int capacity) {
+    this.items = new int[Math.max(capacity, 1)];
+    this.size = 0;
   }
 
-  // helps determine whether this deque contains the given element
-  // by iterating through the deque
-  abstract boolean containsHelp(T that);
+  // returns the number of items on this stack
+  public int size() {
+    return this.size;
+  }
+
+  // determines if this stack is empty
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // EFFECT: adds the given item on top, doubling the array when it is full
+  public void add(int item) {
+    if (this.size == this.items.length) {
+      this.items = Arrays.copyOf(this.items, this.size * 2);
+    }
+    this.items[this.size] = item;
+    this.size += 1;
+  }
+
+  // removes and returns the last item added that is still on this stack
+  public int remove() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty list");
+    }
+    this.size -= 1;
+    return this.items[this.size];
+  }
 }
 
-// To represent a node in a deque which has data, a next, and a previous
-class Node<T> extends ANode<T> {
-  T data;
+// To represent a binary min-heap of the ints 0 .. capacity - 1 by priority, indexed by
+// item so an item already in the heap can have its priority lowered in O(log n)
+class IntMinHeap {
+  // the items in heap order
+  private final int[] heap;
+  // where each item is in heap, or -1 if it is not in the heap
+  private final int[] position;
+  private final int[] priority;
+  private int size;
+
+  IntMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.position = new int[capacity];
+    Arrays.fill(this.position, -1);
+    this.priority = new int[capacity];
+    this.size = 0;
+  }
 
-  Node(T data) {
-    super();
-    this.data = data;
+  // returns the number of items in this heap
+  int size() {
+    return this.size;
   }
 
-  Node(T data, ANode<T> next, ANode<T> prev) {
-    super();
-    this.data = data;
-    if (next == null) {
-      throw new IllegalArgumentException("Cannot have a null Node");
+  // returns true if this heap has no items
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // returns true if the given item is in this heap
+  boolean contains(int item) {
+    return this.position[item] >= 0;
+  }
+
+  // EFFECT: adds the given item with the given priority, or lowers its priority to the
+  // given one if it is already in this heap with a higher one
+  void offer(int item, int priority) {
+    if (this.position[item] < 0) {
+      this.heap[this.size] = item;
+      this.position[item] = this.size;
+      this.priority[item] = priority;
+      this.size += 1;
+      this.siftUp(this.size - 1);
     }
-    else {
-      if (prev == null) {
-        throw new IllegalArgumentException("Cannot have a null Node");
-      }
-      else {
-        this.prev = prev;
-      }
-      this.next = next;
+    else if (priority < this.priority[item]) {
+      this.priority[item] = priority;
+      this.siftUp(this.position[item]);
     }
-    next.prev = this;
-    prev.next = this;
   }
 
-  // returns this Node's T data at the given index
-  T removeHelp(int index) {
-    if (index == 0) {
-      this.next.updatePrev(this);
-      this.prev.updateNext(this);
-      return this.data;
+  // returns the item with the lowest priority
+  // EFFECT: removes that item
+  int removeMin() {
+    if (this.size == 0) {
+      throw new RuntimeException("Cannot remove an element from an empty heap");
     }
-    else {
-      return this.next.removeHelp(index - 1);
+    int min = this.heap[0];
+    this.size -= 1;
+    this.position[min] = -1;
+    if (this.size > 0) {
+      this.heap[0] = this.heap[this.size];
+      this.position[this.heap[0]] = 0;
+      this.siftDown(0);
     }
+    return min;
   }
 
-  // helps determine if this element is in the deque by checking
-  // if it is in this node and if it isn't, passing it onto the next neighbor to check
-  boolean containsHelp(T that) {
-    if (this.data.equals(that)) {
-      return true;
+  // EFFECT: moves the item at the given slot up until its parent has no higher priority
+  void siftUp(int slot) {
+    int item = this.heap[slot];
+    while (slot > 0) {
+      int parent = (slot - 1) / 2;
+      if (this.priority[this.heap[parent]] <= this.priority[item]) {
+        break;
+      }
+      this.place(this.heap[parent], slot);
+      slot = parent;
     }
-    else {
-      return this.next.containsHelp(that);
+    this.place(item, slot);
+  }
+
+  // EFFECT: moves the item at the given slot down until neither child has a lower priority
+  void siftDown(int slot) {
+    int item = this.heap[slot];
+    while (2 * slot + 1 < this.size) {
+      int child = 2 * slot + 1;
+      if (child + 1 < this.size
+          && this.priority[this.heap[child + 1]] < this.priority[this.heap[child]]) {
+        child += 1;
+      }
+      if (this.priority[item] <= this.priority[this.heap[child]]) {
+        break;
+      }
+      this.place(this.heap[child], slot);
+      slot = child;
     }
+    this.place(item, slot);
   }
 
+  // EFFECT: puts the given item in the given slot of the heap
+  void place(int item, int slot) {
+    this.heap[slot] = item;
+    this.position[item] = slot;
+  }
 }
 
-// To represent a header of the deque with a next and previous from which we can access all nodes
-class Sentinel<T> extends ANode<T> {
+// To represent a search for a path from a start cell to an end cell through the passages
+// of a maze grid, advanced one step at a time so it can be animated or run to completion
+abstract class ASearch {
+  // marks a cell with no predecessor in cameFrom
+  static final int UNSET = -1;
+
+  final MazeGrid grid;
+  final int start;
+  final int end;
+  // bit i is set once cell i has been visited
+  final BitSet seen;
+  // the cells in the order they were first visited
+  final IntList visitLog;
+  // the cell each cell was first reached from, or UNSET
+  final int[] cameFrom;
+  boolean solved;
+
+  ASearch(MazeGrid grid, int start, int end) {
+    this.grid = grid;
+    this.start = start;
+    this.end = end;
+    this.seen = new BitSet(grid.size());
+    this.visitLog = new IntList();
+    this.cameFrom = new int[grid.size()];
+    Arrays.fill(this.cameFrom, UNSET);
+    this.solved = false;
+  }
 
-  Sentinel(ANode<T> next, ANode<T> prev) {
-    super();
-    this.next = next;
-    this.prev = prev;
+  // returns true if this step of the search reached the end
+  // EFFECT: explores the next cell of the search
+  abstract boolean step();
+
+  // returns true once the search has reached the end or has nothing left to explore
+  abstract boolean isFinished();
+
+  // runs this search until it finishes and returns what it found
+  SolveResult run() {
+    while (!this.isFinished()) {
+      this.step();
+    }
+    if (this.solved) {
+      return new SolveResult(true, this.path(), this.visitLog);
+    }
+    else {
+      return new SolveResult(false, new IntList(), this.visitLog);
+    }
   }
 
-  Sentinel() {
-    super();
-    next = this;
-    prev = this;
+  // EFFECT: marks the given cell visited, logging it if this is its first visit
+  void visit(int cell) {
+    if (!this.seen.get(cell)) {
+      this.seen.set(cell);
+      this.visitLog.add(cell);
+    }
   }
 
-  // overridden from abstract class:
-  // counts the number of Nodes this Sentinel "is" (none)
-  int sizeHelp() {
-    return 0;
+  // EFFECT: records that the given cell was reached from the other, unless it was
+  // already reached from somewhere else
+  void reach(int cell, int from) {
+    if (this.cameFrom[cell] == UNSET) {
+      this.cameFrom[cell] = from;
+    }
   }
 
-  // counts the number of Nodes this Sentinel has not including the header (so
-  // this)
-  int sizeHeader() {
-    return this.next.sizeHelp();
+  // returns the path from the end back to the start, following the cell each cell was
+  // first reached from
+  IntList path() {
+    IntList path = new IntList();
+    int curr = this.end;
+    while (curr != this.start) {
+      if (curr == UNSET) {
+        throw new IllegalStateException("The search never reached the end from the start");
+      }
+      path.add(curr);
+      curr = this.cameFrom[curr];
+    }
+    path.add(curr);
+    return path;
   }
 
-  // continues removeHelp to this Sentinel's next
-  // since this Sentinel has no data T to return
-  T removeHelp(int index) {
-    return this.next.removeHelp(index);
+  // returns the cells visited so far in the order they were first visited
+  IntList getVisitLog() {
+    return this.visitLog;
   }
 
-  // returns false because if the sentinel is reached in the helper
-  // method it is the second time we have seen the sentinel and therefore
-  // the given element is not in the deque
-  boolean containsHelp(T that) {
-    return false;
+  // returns true if the given cell has been visited
+  boolean isVisited(int cell) {
+    return this.seen.get(cell);
   }
 }
 
-// To represent a deque with a sentinel from which we can access all of its nodes
-class Deque<T> {
-  Sentinel<T> header;
+// To represent a breadth first or depth first search, depending on whether its worklist
+// is a queue or a stack
+class WorklistSearch extends ASearch {
+  private final IIntCollection worklist;
 
-  Deque(Sentinel<T> header) {
-    this.header = header;
+  // continues a search whose frontier is the given worklist
+  WorklistSearch(MazeGrid grid, int start, int end, IIntCollection worklist) {
+    super(grid, start, end);
+    this.worklist = worklist;
   }
 
-  Deque() {
-    this.header = new Sentinel<T>();
+  // returns true if the next cell of the worklist is the end
+  // EFFECT: removes the next cell of the worklist and, unless it was seen before, visits
+  // it and adds every neighbor it has a passage to
+  boolean step() {
+    int cell = this.worklist.remove();
+    if (this.seen.get(cell)) {
+      // do nothing: we've already seen this one
+      return false;
+    }
+    else if (cell == this.end) {
+      this.solved = true;
+      return true;
+    }
+    else {
+      int links = this.grid.linksOf(cell);
+      for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir <<= 1) {
+        if ((links & dir) != 0) {
+          int next = this.grid.neighbor(cell, dir);
+          this.worklist.add(next);
+          this.reach(next, cell);
+        }
+      }
+      this.visit(cell);
+      return false;
+    }
   }
 
-  // counts the number of Nodes in this Deque, not including the header node
-  int size() {
-    return this.header.sizeHeader();
+  boolean isFinished() {
+    return this.solved || this.worklist.isEmpty();
   }
+}
 
-  // inserts the given element at the front of this Deque
-  void addAtHead(T elem) {
-    new Node<T>(elem, this.header.next, this.header);
+// To represent an A* search, which always explores the cell with the shortest known
+// distance from the start plus Manhattan distance to the end. Since every passage is one
+// step long that estimate never overshoots, so the first path found to the end is a
+// shortest one, found after exploring only the cells that could lie on one
+class AStarSearch extends ASearch {
+  private final IntMinHeap open;
+  // the length of the shortest known path from the start to each cell
+  private final int[] distance;
+
+  AStarSearch(MazeGrid grid, int start, int end) {
+    super(grid, start, end);
+    this.open = new IntMinHeap(grid.size());
+    this.distance = new int[grid.size()];
+    Arrays.fill(this.distance, Integer.MAX_VALUE);
+    this.distance[start] = 0;
+    this.open.offer(start, this.estimate(start));
   }
 
-  // inserts the given element at the back of this Deque
-  void addAtTail(T elem) {
-    new Node<T>(elem, this.header, this.header.prev);
+  // returns the Manhattan distance from the given cell to the end
+  int estimate(int cell) {
+    return Math.abs(this.grid.xOf(cell) - this.grid.xOf(this.end))
+        + Math.abs(this.grid.yOf(cell) - this.grid.yOf(this.end));
   }
 
-  // Removes the first node from this Deque
-  T removeFromHead() {
-    if (this.size() == 0) {
-      throw new RuntimeException("Cannot remove an element from an empty list");
+  // returns true if the most promising open cell is the end
+  // EFFECT: removes the most promising open cell, visits it and opens every neighbor
+  // it gives a shorter path to
+  boolean step() {
+    int cell = this.open.removeMin();
+    if (cell == this.end) {
+      this.solved = true;
+      return true;
     }
-    else {
-      return this.header.removeHelp(0);
+    int links = this.grid.linksOf(cell);
+    for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir <<= 1) {
+      if ((links & dir) != 0) {
+        int next = this.grid.neighbor(cell, dir);
+        int throughCell = this.distance[cell] + 1;
+        if (throughCell < this.distance[next]) {
+          this.distance[next] = throughCell;
+          this.cameFrom[next] = cell;
+          this.open.offer(next, throughCell + this.estimate(next));
+        }
+      }
     }
+    this.visit(cell);
+    return false;
   }
 
-  // determines if this deque contains the given element 
-  boolean contains(T that) {
-    if (this.size() == 0) {
-      return false;
+  boolean isFinished() {
+    return this.solved || this.open.isEmpty();
+  }
+}
+
+// To represent a breadth first search from the start and from the end at once, taking
+// turns to explore a cell from each side until the two sides touch. Each side only has to
+// reach about halfway, so together they explore far fewer cells than one search would
+class BidirectionalSearch extends ASearch {
+  // which side reached each cell first: 0 for neither, FORWARD or BACKWARD
+  static final byte FORWARD = 1;
+  static final byte BACKWARD = 2;
+
+  private final IntQueue fromStart;
+  private final IntQueue fromEnd;
+  private final byte[] side;
+  // the cell each cell reached from the end was first reached from, or UNSET
+  private final int[] towardEnd;
+  // whether the next step explores from the start
+  private boolean forwardTurn;
+  // the two neighboring cells where the sides touched, one reached from each end
+  private int meetForward;
+  private int meetBackward;
+
+  BidirectionalSearch(MazeGrid grid, int start, int end) {
+    super(grid, start, end);
+    this.fromStart = new IntQueue();
+    this.fromEnd = new IntQueue();
+    this.side = new byte[grid.size()];
+    this.towardEnd = new int[grid.size()];
+    Arrays.fill(this.towardEnd, UNSET);
+    this.forwardTurn = true;
+    this.meetForward = UNSET;
+    this.meetBackward = UNSET;
+    if (start == end) {
+      this.meetForward = start;
+      this.solved = true;
     }
     else {
-      return this.header.contains(that);
+      this.side[start] = FORWARD;
+      this.side[end] = BACKWARD;
+      this.fromStart.add(start);
+      this.fromEnd.add(end);
     }
   }
-}
 
-// To represent a collection in which items are removed and added at the head
-// (first in first out)
-class Stack<T> implements ICollection<T> {
-  Deque<T> contents;
-
-  Stack() {
-    this.contents = new Deque<T>();
-  }
+  // returns true if this step joined the two sides
+  // EFFECT: explores the next cell of one side, taking turns unless the other side has
+  // run out, and claims each of its neighbors that neither side has reached yet
+  boolean step() {
+    boolean forward = this.fromEnd.isEmpty() || (this.forwardTurn && !this.fromStart.isEmpty());
+    this.forwardTurn = !forward;
+    IntQueue frontier;
+    byte mine;
+    int[] parents;
+    if (forward) {
+      frontier = this.fromStart;
+      mine = FORWARD;
+      parents = this.cameFrom;
+    }
+    else {
+      frontier = this.fromEnd;
+      mine = BACKWARD;
+      parents = this.towardEnd;
+    }
 
-  // determines if this stack is empty
-  public boolean isEmpty() {
-    return this.contents.size() == 0;
+    int cell = frontier.remove();
+    this.visit(cell);
+    int links = this.grid.linksOf(cell);
+    for (int dir = MazeGrid.NORTH; dir <= MazeGrid.WEST; dir <<= 1) {
+      if ((links & dir) != 0) {
+        int next = this.grid.neighbor(cell, dir);
+        if (this.side[next] == 0) {
+          this.side[next] = mine;
+          parents[next] = cell;
+          frontier.add(next);
+        }
+        else if (this.side[next] != mine) {
+          this.meetForward = forward ? cell : next;
+          this.meetBackward = forward ? next : cell;
+          this.solved = true;
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
-  // removes the node at the head
-  public T remove() {
-    return this.contents.removeFromHead();
+  boolean isFinished() {
+    return this.solved || (this.fromStart.isEmpty() && this.fromEnd.isEmpty());
   }
 
-  // adds the given element at the head of the contents
-  public void add(T item) {
-    this.contents.addAtHead(item);
+  // returns the path from the end back to the start: from the end to where the sides met
+  // through the cells reached from the end, then on to the start through the others
+  IntList path() {
+    if (!this.solved) {
+      throw new IllegalStateException("The search never reached the end from the start");
+    }
+    IntList backward = new IntList();
+    for (int curr = this.meetBackward; curr != UNSET; curr = this.towardEnd[curr]) {
+      backward.add(curr);
+    }
+    IntList path = new IntList(backward.size() * 2 + 1);
+    for (int i = backward.size() - 1; i >= 0; i -= 1) {
+      path.add(backward.get(i));
+    }
+    for (int curr = this.meetForward; curr != UNSET; curr = this.cameFrom[curr]) {
+      path.add(curr);
+    }
+    return path;
   }
 }
 
-// To represent a collection in which items are removed at the head but
-// added at the tail (first in last out)
-class Queue<T> implements ICollection<T> {
-  Deque<T> contents;
+// To represent the outcome of a search run to completion: whether it reached the end, the
+// path from the end back to the start, and every cell in the order it was first visited
+class SolveResult {
+  private final boolean solved;
+  private final IntList path;
+  private final IntList visitOrder;
+
+  SolveResult(boolean solved, IntList path, IntList visitOrder) {
+    this.solved = solved;
+    this.path = path;
+    this.visitOrder = visitOrder;
+  }
 
-  Queue() {
-    this.contents = new Deque<T>();
+  // returns true if the search reached the end
+  boolean isSolved() {
+    return this.solved;
   }
 
-  // determines if this queue is empty
-  public boolean isEmpty() {
-    return this.contents.size() == 0;
+  // returns the path from the end back to the start, empty if there is none
+  IntList getPath() {
+    return this.path;
   }
 
-  // removes the node at the head of the contents
-  public T remove() {
-    return this.contents.removeFromHead();
+  // returns the cells in the order the search first visited them
+  IntList getVisitOrder() {
+    return this.visitOrder;
   }
 
-  // adds the given element at the tail of the contents
-  public void add(T item) {
-    this.contents.addAtTail(item);
+  // returns how many cells the search explored
+  int explored() {
+    return this.visitOrder.size();
   }
 }
 
@@ -1004,10 +3609,10 @@ class ExamplesMaze {
   ArrayList<Cell> cells = new ArrayList<Cell>();
   ArrayList<Wall> walls2 = new ArrayList<Wall>();
   ArrayList<Cell> cells2 = new ArrayList<Cell>();
-  ICollection<Cell> worklist = new Queue<Cell>();
+  IIntCollection worklist = new IntQueue();
   ArrayList<Cell> alreadySeen = new ArrayList<Cell>();
   HashMap<Cell, Cell> cameFromEdge = new HashMap<Cell, Cell>();
-  ICollection<Cell> worklist2 = new Stack<Cell>();
+  IIntCollection worklist2 = new IntStack();
   
 
   ArrayList<Cell> alreadySeen2 = new ArrayList<Cell>();
@@ -1060,7 +3665,7 @@ class ExamplesMaze {
     cells2.add(y);
     cells2.add(z);
     
-    worklist.add(i);
+    worklist.add(i.index(3));
     
     alreadySeen.clear();
     alreadySeen.add(a);
@@ -1078,7 +3683,7 @@ class ExamplesMaze {
     cameFromEdge.put(f, e);
     cameFromEdge.put(i, f);
     
-    worklist2.add(z);
+    worklist2.add(z.index(2));
     
     alreadySeen2.clear();
     alreadySeen2.add(w);
@@ -1303,17 +3908,22 @@ class ExamplesMaze {
     resultEdgesInTree.add(ad);
     resultEdgesInTree.add(hg);
 
+    MazeGrid tree = new MazeGrid(3, 3);
+    for (Wall w : resultEdgesInTree) {
+      w.carveInto(tree);
+    }
+
     // moving from a to d (one move right)
-    Cell aToDMove = a.nextCell(resultEdgesInTree, 1, 0, 3, 3);
+    Cell aToDMove = a.nextCell(tree, 1, 0);
 
     // moving from h to g (one move up)
-    Cell hToGMove = h.nextCell(resultEdgesInTree, 0, -1, 3, 3);
+    Cell hToGMove = h.nextCell(tree, 0, -1);
 
     // moving from f to c (one move left)
-    Cell fToCMove = f.nextCell(resultEdgesInTree, -1, 0, 3, 3);
+    Cell fToCMove = f.nextCell(tree, -1, 0);
 
     // moving from a to out of bounds (one move left)
-    Cell aToOutOfBoundsMove = a.nextCell(resultEdgesInTree, -1, 0, 3, 3);
+    Cell aToOutOfBoundsMove = a.nextCell(tree, -1, 0);
 
     return t.checkExpect(aToDMove, d) // path in mst, valid
         && t.checkExpect(hToGMove, g) // path in mst, valid
@@ -1427,10 +4037,7 @@ class ExamplesMaze {
     edges.add(ih);
     edges.add(iF);
 
-    HashMap<Cell, Cell> representatives = new HashMap<>();
-    for (Cell z : vertices) {
-      representatives.put(z, z);
-    }
+    DisjointSet components = new DisjointSet(vertices.size());
 
     ArrayList<Wall> worklist = new ArrayList<>();
     for (int u = 0; u < edges.size(); u += 1) {
@@ -1458,13 +4065,12 @@ class ExamplesMaze {
 
       Wall curr = worklist.get(0);
 
-      // get the lowest edge and check if its already connected
-      if (curr.alreadyConnected(representatives)) {
+      // get the lowest edge and join its components unless they are already connected
+      if (!curr.joinComponents(components, 3)) {
         worklist.remove(0); // edge is connected, discard it
       }
       else {
         // non cyclic path, so add it to the mst
-        curr.union(representatives, curr);
         mst.add(worklist.remove(0));
       }
     }
@@ -1483,6 +4089,79 @@ class ExamplesMaze {
     return t.checkExpect(mst, resultEdgesInTree);
   }
 
+  boolean testSpanningTreeInMaze(Tester t) {
+    this.initTemp();
+    Maze maze = new Maze(3, 3, walls, cells, worklist, alreadySeen, cameFromEdge);
+
+    // the 3x3 walls sorted by weight are be ef cf de dg fi bc ad eh hi gh ab;
+    // bc would close a cycle and the tree is complete once eh is added
+    ArrayList<Wall> resultEdgesInTree = new ArrayList<Wall>();
+    resultEdgesInTree.add(be);
+    resultEdgesInTree.add(ef);
+    resultEdgesInTree.add(cf);
+    resultEdgesInTree.add(de);
+    resultEdgesInTree.add(dg);
+    resultEdgesInTree.add(fi);
+    resultEdgesInTree.add(ad);
+    resultEdgesInTree.add(eh);
+
+    Maze big = new Maze(120, 80, new Random());
+    Maze parallel = new Maze(120, 80, 4, new FilterKruskal(100));
+
+    EdgeList edges = maze.toEdgeList(walls);
+    ArrayList<Wall> tree = new ArrayList<Wall>();
+    for (int edge : maze.spanningTree(edges)) {
+      tree.add(edges.wallAt(edge, maze.getGrid()));
+    }
+
+    return t.checkExpect(tree, resultEdgesInTree)
+        && t.checkExpect(big.spanningTree(big.createEdges()).length, 120 * 80 - 1)
+        && t.checkExpect(parallel.spanningTree(parallel.createEdges()).length, 120 * 80 - 1);
+  }
+
+  boolean testSeededMazes(Tester t) {
+    Maze first = new Maze(30, 20, 42);
+    Maze again = new Maze(30, 20, 42);
+    Maze filtered = new Maze(30, 20, 42, new FilterKruskal(64));
+    Maze boruvka = new Maze(30, 20, 42, new Boruvka());
+    Maze other = new Maze(30, 20, 43);
+
+    Maze regenerated = new Maze(30, 20, 7);
+    regenerated.makeMaze();
+    long servedSeed = regenerated.getSeed();
+    EdgeList served = regenerated.createEdges();
+    regenerated.makeMaze();
+    regenerated.makeMaze(servedSeed);
+
+    Maze fromRandom = new Maze(30, 20, new Random(9));
+    Maze fromSameRandom = new Maze(30, 20, new Random(9));
+
+    return t.checkExpect(first.getSeed(), 42L)
+        && t.checkExpect(first.createEdges(), again.createEdges())
+        && t.checkExpect(first.getGrid(), again.getGrid())
+        && t.checkExpect(filtered.getGrid(), first.getGrid())
+        && t.checkExpect(boruvka.getGrid(), first.getGrid())
+        && t.checkExpect(other.createEdges().sortedByWeight()
+            .equals(first.createEdges().sortedByWeight()), false)
+        && t.checkExpect(regenerated.getSeed(), servedSeed)
+        && t.checkExpect(regenerated.createEdges(), served)
+        && t.checkExpect(fromRandom.getSeed(), fromSameRandom.getSeed())
+        && t.checkExpect(fromRandom.getGrid(), fromSameRandom.getGrid());
+  }
+
+  boolean testCreateRowEdges(Tester t) {
+    Maze maze = new Maze(3, 2, 1);
+    int[] from = new int[7];
+    int[] to = new int[7];
+    int[] weight = new int[7];
+
+    // the second and last row only has east edges, after the 5 edges of the first row
+    maze.createRowEdges(1, new SplittableRandom(1), from, to, weight);
+
+    return t.checkExpect(from, new int[] {0, 0, 0, 0, 0, 3, 4})
+        && t.checkExpect(to, new int[] {0, 0, 0, 0, 0, 4, 5});
+  }
+
   boolean testGetAllCells(Tester t) {
 
     ArrayList<Cell> vertices = new ArrayList<>();
@@ -1497,58 +4176,6 @@ class ExamplesMaze {
     vertices.add(h);
     vertices.add(i);
 
-    Wall ab = new Wall(a, b, 5);
-    Wall ad = new Wall(a, d, 3);
-    Wall bc = new Wall(b, c, 7);
-    Wall be = new Wall(b, e, 8);
-    Wall ba = new Wall(b, a, 2);
-    Wall cb = new Wall(c, b, 2);
-    Wall cf = new Wall(c, f, 3);
-    Wall da = new Wall(d, a, 6);
-    Wall de = new Wall(d, e, 4);
-    Wall dg = new Wall(d, g, 5);
-    Wall eb = new Wall(e, b, 1);
-    Wall ef = new Wall(e, f, 3);
-    Wall eh = new Wall(e, h, 2);
-    Wall ed = new Wall(e, d, 5);
-    Wall fc = new Wall(f, c, 6);
-    Wall fe = new Wall(f, e, 5);
-    Wall fi = new Wall(f, i, 9);
-    Wall gd = new Wall(g, d, 7);
-    Wall gh = new Wall(g, h, 7);
-    Wall hg = new Wall(h, g, 4);
-    Wall he = new Wall(h, e, 3);
-    Wall hi = new Wall(h, i, 1);
-    Wall ih = new Wall(i, h, 3);
-    Wall iF = new Wall(i, f, 2);
-
-    ArrayList<Wall> edges = new ArrayList<>();
-
-    edges.add(ab);
-    edges.add(ad);
-    edges.add(bc);
-    edges.add(be);
-    edges.add(ba);
-    edges.add(cb);
-    edges.add(cf);
-    edges.add(da);
-    edges.add(de);
-    edges.add(dg);
-    edges.add(eb);
-    edges.add(ef);
-    edges.add(eh);
-    edges.add(ed);
-    edges.add(fc);
-    edges.add(fe);
-    edges.add(fi);
-    edges.add(gd);
-    edges.add(gh);
-    edges.add(hg);
-    edges.add(he);
-    edges.add(hi);
-    edges.add(ih);
-    edges.add(iF);
-
     Cell smallA = new Cell(0, 0);
     Cell smallB = new Cell(1, 0);
     Cell smallC = new Cell(0, 1);
@@ -1560,30 +4187,18 @@ class ExamplesMaze {
     vertices2.add(smallC);
     vertices2.add(smallD);
 
-    Wall smallAB = new Wall(smallA, smallB, 2);
-    Wall smallAC = new Wall(smallA, smallC, 3);
-    Wall smallBA = new Wall(smallB, smallA, 1);
-    Wall smallBD = new Wall(smallB, smallD, 5);
-    Wall smallCA = new Wall(smallC, smallA, 1);
-    Wall smallCD = new Wall(smallC, smallD, 3);
-    Wall smallDB = new Wall(smallD, smallB, 2);
-    Wall smallDC = new Wall(smallD, smallC, 1);
-
-    ArrayList<Wall> edges2 = new ArrayList<>();
-
-    edges2.add(smallAB);
-    edges2.add(smallAC);
-    edges2.add(smallBA);
-    edges2.add(smallBD);
-    edges2.add(smallCA);
-    edges2.add(smallCD);
-    edges2.add(smallDB);
-    edges2.add(smallDC);
+    ArrayList<Cell> vertices3 = new ArrayList<>();
+    vertices3.add(new Cell(0, 0));
+    vertices3.add(new Cell(0, 1));
+    vertices3.add(new Cell(0, 2));
 
     Maze m = new Maze(3, 3);
+    Maze m2 = new Maze(2, 2);
+    Maze m3 = new Maze(1, 3);
 
-    return t.checkExpect(m.getAllCells(edges), vertices)
-        && t.checkExpect(m.getAllCells(edges2), vertices2);
+    return t.checkExpect(m.getAllCells(), vertices)
+        && t.checkExpect(m2.getAllCells(), vertices2)
+        && t.checkExpect(m3.getAllCells(), vertices3);
   }
 
 
@@ -1608,167 +4223,16 @@ class ExamplesMaze {
         && t.checkExpect(hi.weightDifference(gd), -2);
   }
 
-  boolean testAlreadyConnected(Tester t) {
-
-    HashMap<Cell, Cell> reps = new HashMap<Cell, Cell>();
-    reps.put(a, a);
-    reps.put(b, a);
-    reps.put(c, a);
-    reps.put(d, e);
-    reps.put(e, f);
-    reps.put(f, f);
-
-    return t.checkExpect(bc.alreadyConnected(reps), true)
-        && t.checkExpect(ab.alreadyConnected(reps), true)
-        && t.checkExpect(eb.alreadyConnected(reps), false);
-  }
-
-  boolean testFind(Tester t) {
-
-    HashMap<Cell, Cell> reps = new HashMap<Cell, Cell>();
-    reps.put(a, a);
-    reps.put(b, a);
-    reps.put(c, a);
-    reps.put(d, e);
-    reps.put(e, f);
-    reps.put(f, f);
-
-    return t.checkExpect(ab.find(reps, a), a)
-        && t.checkExpect(bc.find(reps, a), a)
-        && t.checkExpect(ef.find(reps, f), f);
-  }
-
-  boolean testUnion(Tester t) {
-
-    HashMap<Cell, Cell> reps = new HashMap<Cell, Cell>();
-    reps.put(a, a);
-    reps.put(b, b);
-    reps.put(c, a);
-    reps.put(d, e);
-    reps.put(e, f);
-    reps.put(f, f);
-
-    ab.union(reps, ab);
-
-    HashMap<Cell, Cell> repsResult = new HashMap<Cell, Cell>();
-    repsResult.put(a, a);
-    repsResult.put(b, a);
-    repsResult.put(c, a);
-    repsResult.put(d, e);
-    repsResult.put(e, f);
-    repsResult.put(f, f);
-
-    HashMap<Cell, Cell> reps2 = new HashMap<Cell, Cell>();
-    reps2.put(a, a);
-    reps2.put(b, a);
-    reps2.put(c, a);
-    reps2.put(d, e);
-    reps2.put(e, e);
-    reps2.put(f, f);
-
-    ef.union(reps2, ef);
-
-    HashMap<Cell, Cell> repsResult2 = new HashMap<Cell, Cell>();
-    repsResult2.put(a, a);
-    repsResult2.put(b, a);
-    repsResult2.put(c, a);
-    repsResult2.put(d, e);
-    repsResult2.put(e, e);
-    repsResult2.put(f, e);
-
-    return t.checkExpect(reps, repsResult)
-        && t.checkExpect(reps2, repsResult2);
-  }
-
-  boolean testAddWallCells(Tester t) {
-
-    ArrayList<Cell> cells = new ArrayList<Cell>();
-    cells.add(a);
-    cells.add(b);
-    cells.add(c);
-    cells.add(d);
-    cells.add(e);
-    cells.add(f);
-
-    gh.addWallCells(cells);
-
-    ArrayList<Cell> cellsResult = new ArrayList<Cell>();
-    cellsResult.add(a);
-    cellsResult.add(b);
-    cellsResult.add(c);
-    cellsResult.add(d);
-    cellsResult.add(e);
-    cellsResult.add(f);
-    cellsResult.add(h);
-    cellsResult.add(g);
-
-    ArrayList<Cell> cells2 = new ArrayList<Cell>();
-    cells2.add(a);
-    cells2.add(b);
-    cells2.add(c);
-    cells2.add(d);
-    cells2.add(e);
-    cells2.add(f);
-
-    dg.addWallCells(cells2);
-
-    ArrayList<Cell> cellsResult2 = new ArrayList<Cell>();
-    cellsResult2.add(a);
-    cellsResult2.add(b);
-    cellsResult2.add(c);
-    cellsResult2.add(d);
-    cellsResult2.add(e);
-    cellsResult2.add(f);
-    cellsResult2.add(g);
-
-    ArrayList<Cell> cells3 = new ArrayList<Cell>();
-    cells3.add(a);
-    cells3.add(b);
-    cells3.add(c);
-    cells3.add(d);
-    cells3.add(e);
-    cells3.add(f);
-
-    bc.addWallCells(cells3);
-
-    return t.checkExpect(cells, cellsResult)
-        && t.checkExpect(cells2, cellsResult2)
-        && t.checkExpect(cells3, cells3);
-  }
-
-  boolean testAddUniqueCells(Tester t) {
-
-    ArrayList<Cell> cells = new ArrayList<Cell>();
-    cells.add(a);
-    cells.add(b);
-    cells.add(c);
-    cells.add(d);
-    cells.add(e);
-    cells.add(f);
-
-    ab.addUniqueCells(cells, a);
-
-    ArrayList<Cell> cells2 = new ArrayList<Cell>();
-    cells2.add(a);
-    cells2.add(b);
-    cells2.add(c);
-    cells2.add(d);
-    cells2.add(e);
-    cells2.add(f);
-
-    gh.addUniqueCells(cells2, h);
+  boolean testJoinComponents(Tester t) {
 
-    ArrayList<Cell> cells2Result = new ArrayList<Cell>();
-    cells2Result.add(a);
-    cells2Result.add(b);
-    cells2Result.add(c);
-    cells2Result.add(d);
-    cells2Result.add(e);
-    cells2Result.add(f);
-    cells2Result.add(h);
+    DisjointSet components = new DisjointSet(9);
 
-    return t.checkExpect(cells, cells)
-        && t.checkExpect(cells2, cells2Result);
+    return t.checkExpect(ab.joinComponents(components, 3), true)
+        && t.checkExpect(bc.joinComponents(components, 3), true)
+        && t.checkExpect(cb.joinComponents(components, 3), false)
+        && t.checkExpect(ef.joinComponents(components, 3), true)
+        && t.checkExpect(components.connected(0, 2), true)
+        && t.checkExpect(components.connected(0, 4), false);
   }
 
   boolean testDrawWall(Tester t) {
@@ -1797,42 +4261,6 @@ class ExamplesMaze {
 
   // ----------- METHODS IN MAZE ----------- \\ 
 
-  boolean testCreateMap(Tester t) {
-
-    Maze maze = new Maze(3, 3);
-
-    ArrayList<Cell> cells = new ArrayList<Cell>();
-    cells.add(a);
-    cells.add(b);
-    cells.add(c);
-    cells.add(d);
-    cells.add(e);
-    cells.add(f);
-
-    HashMap<Cell, Cell> reps = new HashMap<Cell, Cell>();
-    reps.put(a, a);
-    reps.put(b, b);
-    reps.put(c, c);
-    reps.put(d, d);
-    reps.put(e, e);
-    reps.put(f, f);
-
-    ArrayList<Cell> cells2 = new ArrayList<Cell>();
-    cells.add(a);
-    cells.add(a);
-    cells.add(a);
-    cells.add(b);
-    cells.add(c);
-
-    HashMap<Cell, Cell> reps2 = new HashMap<Cell, Cell>();
-    reps.put(a, a);
-    reps.put(b, b);
-    reps.put(c, c);
-
-    return t.checkExpect(maze.createMap(cells), reps)
-        && t.checkExpect(maze.createMap(cells2), reps2);
-  }
-
   boolean testFindStart(Tester t) {
     Maze maze = new Maze(3, 3);
 
@@ -1896,11 +4324,12 @@ class ExamplesMaze {
     walls.add(gh);
     walls.add(hi);  
 
-    ArrayList<Wall> mazeWalls = maze.createEdges();
+    EdgeList mazeWalls = maze.createEdges();
 
 
     //TODO ASK
-    return t.checkExpect(this.sameWalls(mazeWalls, walls), true);
+    return t.checkExpect(mazeWalls.size(), 12)
+        && t.checkExpect(this.sameWalls(mazeWalls.toWalls(new MazeGrid(3, 3)), walls), true);
 
   }
 
@@ -1914,48 +4343,44 @@ class ExamplesMaze {
     walls.add(xz);
     walls.add(yz);
 
-    ArrayList<Wall> mazeWalls = maze.createEdges();
+    EdgeList mazeWalls = maze.createEdges();
+
+    //TODO ASK
+    return t.checkExpect(mazeWalls.size(), 4)
+        && t.checkExpect(this.sameWalls(mazeWalls.toWalls(new MazeGrid(2, 2)), walls), true);
+  }
+
+  boolean testCreateEdges1xN(Tester t) {
+    Maze row = new Maze(4, 1, new Random());
+    Maze column = new Maze(1, 3, new Random());
+
+    EdgeList rowWalls = row.createEdges();
+    EdgeList columnWalls = column.createEdges();
 
-    //TODO ASK
-    return t.checkExpect(this.sameWalls(mazeWalls, walls), true);
+    return t.checkExpect(rowWalls.size(), 3)
+        && t.checkExpect(rowWalls.from(2), 2)
+        && t.checkExpect(rowWalls.to(2), 3)
+        && t.checkExpect(columnWalls.size(), 2)
+        && t.checkExpect(columnWalls.from(1), 1)
+        && t.checkExpect(columnWalls.to(1), 2);
   }
 
-  boolean testAddUniqueEdges(Tester t) {
-
+  boolean testToEdgeList(Tester t) {
     Maze maze = new Maze(3, 3, new Random());
-    Maze maze2 = new Maze(3, 3, new Random());
 
     ArrayList<Wall> walls = new ArrayList<Wall>();
     walls.add(ab);
-    walls.add(be);
-    walls.add(cf);
-    walls.add(dg);
-    walls.add(eh);
     walls.add(fi);
 
-    maze.addUniqueEdges(walls, ab);
-
-    ArrayList<Wall> walls2 = new ArrayList<Wall>();
-    walls2.add(ab);
-    walls2.add(be);
-    walls2.add(cf);
-    walls2.add(dg);
-    walls2.add(eh);
-    walls2.add(fi);
-
-    maze2.addUniqueEdges(walls2, gh);
-
-    ArrayList<Wall> walls2Result = new ArrayList<Wall>();
-    walls2Result.add(ab);
-    walls2Result.add(be);
-    walls2Result.add(cf);
-    walls2Result.add(dg);
-    walls2Result.add(eh);
-    walls2Result.add(fi);
-    walls2Result.add(gh);
+    EdgeList edges = maze.toEdgeList(walls);
 
-    return t.checkExpect(walls, walls)
-        && t.checkExpect(walls2, walls2Result);
+    return t.checkExpect(edges.size(), 2)
+        && t.checkExpect(edges.from(0), 0)
+        && t.checkExpect(edges.to(0), 1)
+        && t.checkExpect(edges.weight(0), 8)
+        && t.checkExpect(edges.from(1), 5)
+        && t.checkExpect(edges.to(1), 8)
+        && t.checkExpect(edges.weight(1), 2);
   }
 
   boolean testGetAllCellsInMaze(Tester t) {
@@ -1963,21 +4388,6 @@ class ExamplesMaze {
     Maze maze = new Maze(3, 3, new Random());
     Maze maze2 = new Maze(2, 2, new Random());
 
-    ArrayList<Wall> walls = new ArrayList<Wall>();
-
-    walls.add(ad);
-    walls.add(ab);
-    walls.add(be);
-    walls.add(bc);
-    walls.add(cf);
-    walls.add(dg);
-    walls.add(de);
-    walls.add(eh);
-    walls.add(ef);
-    walls.add(fi);
-    walls.add(gh);
-    walls.add(hi);  
-
     ArrayList<Cell> cells = new ArrayList<Cell>();
     cells.add(a);
     cells.add(b);
@@ -1989,23 +4399,14 @@ class ExamplesMaze {
     cells.add(h);
     cells.add(i);
 
-    ArrayList<Wall> walls2 = new ArrayList<Wall>();
-
-    walls2.add(wx);
-    walls2.add(wy);
-    walls2.add(xw);
-    walls2.add(xz);
-    walls2.add(zx);
-    walls2.add(zy);
-
     ArrayList<Cell> cells2 = new ArrayList<Cell>();
     cells2.add(w);
     cells2.add(x);
     cells2.add(y);
     cells2.add(z);
 
-    return t.checkExpect(maze.getAllCells(walls), cells)
-        && t.checkExpect(maze2.getAllCells(walls2), cells2);
+    return t.checkExpect(maze.getAllCells(), cells)
+        && t.checkExpect(maze2.getAllCells(), cells2);
   }
 
   boolean testNextElem(Tester t) {
@@ -2050,13 +4451,13 @@ class ExamplesMaze {
     cells2.add(y);
     cells2.add(z);
 
-    ICollection<Cell> worklist = new Queue<Cell>();
+    IIntCollection worklist = new IntQueue();
     ArrayList<Cell> alreadySeen = new ArrayList<Cell>();
     HashMap<Cell, Cell> cameFromEdge = new HashMap<Cell, Cell>();
 
 
-    ICollection<Cell> worklist2 = new Stack<Cell>();
-    worklist2.add(z);
+    IIntCollection worklist2 = new IntStack();
+    worklist2.add(z.index(2));
 
     ArrayList<Cell> alreadySeen2 = new ArrayList<Cell>();
     alreadySeen2.add(w);
@@ -2076,6 +4477,327 @@ class ExamplesMaze {
         && t.checkExpect(maze2.nextElem(), true);
   }
 
+  boolean testVisit(Tester t) {
+    this.initTemp();
+    Maze maze = new Maze(3, 3, walls, cells, worklist, alreadySeen, cameFromEdge);
+    Maze fresh = new Maze(4, 4, 3);
+
+    int logged = maze.getVisitLog().size();
+    maze.visit(8);
+    maze.visit(0);
+
+    // moving the player into walls visits the start cell only once
+    fresh.movePlayer(-1, 0);
+    fresh.movePlayer(0, -1);
+    fresh.movePlayer(-1, 0);
+
+    return t.checkExpect(logged, 8)
+        && t.checkExpect(maze.getVisitLog().size(), 9)
+        && t.checkExpect(maze.getVisitLog().get(8), 8)
+        && t.checkExpect(maze.getVisitLog().get(3), 3)
+        && t.checkExpect(fresh.getVisitLog().toArray(), new int[] {0});
+  }
+
+  boolean testSolutionPath(Tester t) {
+    this.initTemp();
+    Maze maze = new Maze(3, 3, walls, cells, worklist, alreadySeen, cameFromEdge);
+    Maze maze2 = new Maze(2, 2, walls2, cells2, worklist2, alreadySeen2, cameFromEdge2);
+    maze.solution();
+    maze2.solution();
+
+    // a search that never got past the start has no way back from the end
+    Maze unsearched = new Maze(3, 3, 5);
+
+    return t.checkExpect(maze.getFinalPath().toArray(), new int[] {8, 5, 4, 3, 0})
+        && t.checkExpect(maze2.getFinalPath().toArray(), new int[] {3, 1, 0})
+        && t.checkException(
+            new IllegalStateException("The search never reached the end from the start"),
+            unsearched, "solution");
+  }
+
+  boolean testSearchToSolution(Tester t) {
+    Maze maze = new Maze(25, 20, 8);
+    int steps = 0;
+    while (!maze.nextElem()) {
+      steps += 1;
+    }
+    IntList path = maze.getFinalPath();
+
+    boolean connected = true;
+    for (int i = 1; i < path.size(); i += 1) {
+      connected = connected && maze.getGrid().hasPassage(path.get(i - 1), path.get(i));
+    }
+
+    return t.checkExpect(path.get(0), 25 * 20 - 1)
+        && t.checkExpect(path.get(path.size() - 1), 0)
+        && t.checkExpect(connected, true)
+        && t.checkExpect(steps >= path.size() - 1, true);
+  }
+
+  boolean testSolve(Tester t) {
+    Maze maze = new Maze(30, 20, 17);
+    SolveResult bfs = maze.solve("bfs");
+    SolveResult dfs = maze.solve("dfs");
+
+    // animating the same search one tick at a time visits the same cells in the same order
+    maze.onKeyEvent("b");
+    while (!maze.nextElem()) {
+      // keep searching
+    }
+
+    return t.checkExpect(bfs.isSolved(), true)
+        && t.checkExpect(dfs.isSolved(), true)
+        // a perfect maze has exactly one path, whichever way it is found
+        && t.checkExpect(bfs.getPath().toArray(), dfs.getPath().toArray())
+        && t.checkExpect(bfs.getPath().toArray(), maze.getFinalPath().toArray())
+        && t.checkExpect(bfs.getVisitOrder().toArray(), maze.getVisitLog().toArray())
+        && t.checkExpect(bfs.explored() <= 30 * 20, true)
+        && t.checkExpect(dfs.explored() >= dfs.getPath().size() - 1, true);
+  }
+
+  boolean testIntMinHeap(Tester t) {
+    IntMinHeap heap = new IntMinHeap(6);
+    heap.offer(3, 7);
+    heap.offer(1, 4);
+    heap.offer(5, 9);
+    heap.offer(0, 6);
+    // lowering 5 moves it to the front, raising 1 changes nothing
+    heap.offer(5, 2);
+    heap.offer(1, 8);
+
+    return t.checkExpect(heap.size(), 4)
+        && t.checkExpect(heap.contains(5), true)
+        && t.checkExpect(heap.contains(2), false)
+        && t.checkExpect(heap.removeMin(), 5)
+        && t.checkExpect(heap.removeMin(), 1)
+        && t.checkExpect(heap.removeMin(), 0)
+        && t.checkExpect(heap.contains(0), false)
+        && t.checkExpect(heap.removeMin(), 3)
+        && t.checkExpect(heap.isEmpty(), true)
+        && t.checkException(new RuntimeException("Cannot remove an element from an empty heap"),
+            heap, "removeMin");
+  }
+
+  boolean testAStar(Tester t) {
+    Maze maze = new Maze(60, 40, 23);
+    SolveResult bfs = maze.solve("bfs");
+    SolveResult astar = maze.solve("astar");
+
+    maze.onKeyEvent("a");
+    while (!maze.nextElem()) {
+      // keep searching
+    }
+
+    return t.checkExpect(astar.isSolved(), true)
+        && t.checkExpect(astar.getPath().toArray(), bfs.getPath().toArray())
+        && t.checkExpect(maze.getFinalPath().toArray(), bfs.getPath().toArray())
+        && t.checkExpect(astar.getVisitOrder().toArray(), maze.getVisitLog().toArray())
+        && t.checkExpect(astar.explored() >= astar.getPath().size() - 1, true)
+        && t.checkExpect(astar.explored() <= 60 * 40, true);
+  }
+
+  boolean testBidirectional(Tester t) {
+    Maze maze = new Maze(50, 30, 31);
+    SolveResult bfs = maze.solve("bfs");
+    SolveResult both = maze.solve("bidirectional");
+
+    maze.onKeyEvent("t");
+    while (!maze.nextElem()) {
+      // keep searching
+    }
+
+    return t.checkExpect(both.isSolved(), true)
+        && t.checkExpect(both.getPath().toArray(), bfs.getPath().toArray())
+        && t.checkExpect(maze.getFinalPath().toArray(), bfs.getPath().toArray())
+        && t.checkExpect(both.getVisitOrder().toArray(), maze.getVisitLog().toArray());
+  }
+
+  boolean testBidirectionalSmall(Tester t) {
+    // the two sides meet across the one passage, or start out already met
+    SolveResult pair = new BidirectionalSearch(this.openPair(), 0, 1).run();
+    SolveResult single = new Maze(1, 1, 4).solve("bidirectional");
+    SolveResult closed = new BidirectionalSearch(new MazeGrid(2, 1), 0, 1).run();
+
+    return t.checkExpect(pair.getPath().toArray(), new int[] {1, 0})
+        && t.checkExpect(single.getPath().toArray(), new int[] {0})
+        && t.checkExpect(closed.isSolved(), false)
+        && t.checkExpect(closed.getVisitOrder().toArray(), new int[] {0, 1});
+  }
+
+  // returns a 2x1 grid with a passage between its two cells
+  MazeGrid openPair() {
+    MazeGrid grid = new MazeGrid(2, 1);
+    grid.carve(0, 1);
+    return grid;
+  }
+
+  boolean testPathIndexCorridor(Tester t) {
+    // a corridor 0 - 1 - 2 - 3 with 4 hanging below 1
+    MazeGrid grid = new MazeGrid(4, 2);
+    grid.carve(0, 1);
+    grid.carve(1, 2);
+    grid.carve(2, 3);
+    grid.carve(1, 5);
+    grid.carve(5, 4);
+    grid.carve(5, 6);
+    grid.carve(6, 7);
+    PathIndex index = new PathIndex(grid, 0);
+
+    return t.checkExpect(index.depth(3), 3)
+        && t.checkExpect(index.lowestCommonAncestor(3, 7), 1)
+        && t.checkExpect(index.lowestCommonAncestor(4, 5), 5)
+        && t.checkExpect(index.distance(3, 4), 4)
+        && t.checkExpect(index.distance(6, 6), 0)
+        && t.checkExpect(index.path(3, 4).toArray(), new int[] {3, 2, 1, 5, 4})
+        && t.checkExpect(index.path(0, 7).toArray(), new int[] {0, 1, 5, 6, 7})
+        && t.checkExpect(index.path(2, 2).toArray(), new int[] {2})
+        && t.checkException(new IllegalArgumentException("Not a cell of this maze: 8"),
+            index, "distance", 0, 8)
+        && t.checkConstructorException(
+            new IllegalArgumentException("The passages of this grid do not form a spanning tree"),
+            "PathIndex", new MazeGrid(2, 2), 0);
+  }
+
+  boolean testPathIndexMatchesSearch(Tester t) {
+    Maze maze = new Maze(40, 35, 12);
+    PathIndex index = maze.getPathIndex();
+    Random rand = new Random(5);
+    boolean same = true;
+    for (int i = 0; i < 50; i += 1) {
+      int a = rand.nextInt(40 * 35);
+      int b = rand.nextInt(40 * 35);
+      IIntCollection worklist = new IntQueue();
+      worklist.add(a);
+      IntList found = new WorklistSearch(maze.getGrid(), a, b, worklist).run().getPath();
+      same = same && Arrays.equals(index.path(b, a).toArray(), found.toArray())
+          && index.distance(a, b) == found.size() - 1;
+    }
+    return t.checkExpect(same, true)
+        && t.checkExpect(index.distance(0, 40 * 35 - 1), maze.solve("bfs").getPath().size() - 1);
+  }
+
+  boolean testDistanceToExit(Tester t) {
+    Maze maze = new Maze(30, 30, 44);
+    IntList solution = maze.solve("bfs").getPath();
+    int middle = solution.get(solution.size() / 2);
+    IntList fromMiddle = maze.solutionFrom(middle);
+
+    // the solution found by search runs from the end, so it lists the path backwards
+    boolean backwards = true;
+    for (int i = 0; i < fromMiddle.size(); i += 1) {
+      backwards = backwards && fromMiddle.get(i) == solution.get(solution.size() / 2 - i);
+    }
+
+    return t.checkExpect(maze.remainingDistance(), solution.size() - 1)
+        && t.checkExpect(maze.hint(), solution.get(solution.size() - 2))
+        && t.checkExpect(maze.distanceToExit(middle), solution.size() / 2)
+        && t.checkExpect(fromMiddle.size(), solution.size() / 2 + 1)
+        && t.checkExpect(backwards, true)
+        && t.checkExpect(maze.distanceToExit(30 * 30 - 1), 0)
+        && t.checkExpect(maze.nextStepToExit(30 * 30 - 1), 30 * 30 - 1);
+  }
+
+  boolean testHintFollowsPlayer(Tester t) {
+    Maze maze = new Maze(2, 2, 0);
+    maze.onKeyEvent("m");
+    int before = maze.remainingDistance();
+    int next = maze.hint();
+    maze.movePlayer(maze.getGrid().yOf(next), maze.getGrid().xOf(next));
+    return t.checkExpect(maze.remainingDistance(), before - 1)
+        && t.checkExpect(maze.getVisitLog().toArray(), new int[] {0});
+  }
+
+  boolean testSolveLeavesAnimationAlone(Tester t) {
+    Maze maze = new Maze(10, 10, 2);
+    maze.solve("dfs");
+    return t.checkExpect(maze.getVisitLog().size(), 0)
+        && t.checkExpect(maze.getFinalPath().size(), 0)
+        && t.checkException(new IllegalArgumentException("Unknown search strategy: greedy"),
+            maze, "solve", "greedy");
+  }
+
+  boolean testUnsolvableSearch(Tester t) {
+    // no passages at all, so the search runs out of cells before the end
+    MazeGrid closed = new MazeGrid(2, 2);
+    IIntCollection worklist = new IntQueue();
+    worklist.add(0);
+    SolveResult result = new WorklistSearch(closed, 0, 3, worklist).run();
+    return t.checkExpect(result.isSolved(), false)
+        && t.checkExpect(result.getPath().size(), 0)
+        && t.checkExpect(result.getVisitOrder().toArray(), new int[] {0});
+  }
+
+  boolean testStepsPerTick(Tester t) {
+    Maze fast = new Maze(20, 20, 6);
+    Maze slow = new Maze(20, 20, 6);
+    fast.setStepsPerTick(5);
+    fast.onKeyEvent("b");
+    slow.onKeyEvent("b");
+    fast.onTick();
+    for (int i = 0; i < 5; i += 1) {
+      slow.onTick();
+    }
+
+    return t.checkExpect(fast.getVisitLog().toArray(), slow.getVisitLog().toArray())
+        && t.checkException(new IllegalArgumentException("Must take at least one step per tick"),
+            fast, "setStepsPerTick", 0)
+        && t.checkException(new IllegalArgumentException("A frame budget cannot be negative"),
+            fast, "setFrameBudget", -1L);
+  }
+
+  boolean testFrameBudget(Tester t) {
+    Maze maze = new Maze(40, 40, 9);
+    maze.setStepsPerTick(Integer.MAX_VALUE);
+    maze.setFrameBudget(5_000_000_000L);
+    maze.onKeyEvent("d");
+    int steps = maze.advance();
+
+    // the search stops as soon as it reaches the end, long before the budget runs out
+    return t.checkExpect(maze.getFinalPath().get(0), 40 * 40 - 1)
+        && t.checkExpect(steps <= 2 * 40 * 40, true)
+        && t.checkExpect(maze.advance(), 0);
+  }
+
+  boolean testFrameBudgetStopsTick(Tester t) {
+    Maze maze = new Maze(300, 300, 9);
+    maze.setStepsPerTick(Integer.MAX_VALUE);
+    maze.setFrameBudget(1);
+    maze.onKeyEvent("b");
+    int steps = maze.advance();
+
+    // the clock is first read after 64 steps, by which time the budget is long spent
+    return t.checkExpect(steps, 64)
+        && t.checkExpect(maze.getFinalPath().size(), 0)
+        && t.checkExpect(maze.getVisitLog().size() < 300 * 300, true);
+  }
+
+  boolean testSpeedKeys(Tester t) {
+    Maze maze = new Maze(5, 5, 1);
+    maze.onKeyEvent("+");
+    maze.onKeyEvent("+");
+    int doubled = maze.getStepsPerTick();
+    maze.onKeyEvent("-");
+    maze.onKeyEvent("-");
+    maze.onKeyEvent("-");
+    return t.checkExpect(doubled, 4)
+        && t.checkExpect(maze.getStepsPerTick(), 1);
+  }
+
+  boolean testHandBuiltMazeHasNoSeed(Tester t) {
+    this.initTemp();
+    Maze maze = new Maze(3, 3, walls, cells, worklist, alreadySeen, cameFromEdge);
+    boolean before = maze.isSeeded();
+    boolean threw = t.checkException(
+        new IllegalStateException("This maze was built by hand and has no seed"),
+        maze, "getSeed");
+    maze.makeMaze(8);
+
+    return threw
+        && t.checkExpect(before, false)
+        && t.checkExpect(maze.isSeeded(), true)
+        && t.checkExpect(maze.getSeed(), 8L);
+  }
+
   boolean testSolution(Tester t) {
 
     ArrayList<Wall> walls = new ArrayList<Wall>();
@@ -2154,8 +4876,8 @@ class ExamplesMaze {
     Wall zxCopy = new Wall(z, x, 5);
     Wall zyCopy = new Wall(z, y, 2);
 
-    ICollection<Cell> worklist = new Queue<Cell>();
-    worklist.add(i);
+    IIntCollection worklist = new IntQueue();
+    worklist.add(i.index(3));
     ArrayList<Cell> alreadySeen = new ArrayList<Cell>();
     alreadySeen.add(a);
     alreadySeen.add(b);
@@ -2172,8 +4894,8 @@ class ExamplesMaze {
     cameFromEdge.put(f, e);
     cameFromEdge.put(i, f);
 
-    ICollection<Cell> worklist2 = new Stack<Cell>();
-    worklist2.add(z);
+    IIntCollection worklist2 = new IntStack();
+    worklist2.add(z.index(2));
 
     ArrayList<Cell> alreadySeen2 = new ArrayList<Cell>();
     alreadySeen2.add(w);
@@ -2240,6 +4962,782 @@ class ExamplesMaze {
         && t.checkExpect(drawnMaze2, w2);
   }
 
+  // ----------- METHODS IN MAZEGRID ----------- \\
+
+  boolean testCellIndex(Tester t) {
+    return t.checkExpect(a.index(3), 0)
+        && t.checkExpect(c.index(3), 2)
+        && t.checkExpect(d.index(3), 3)
+        && t.checkExpect(i.index(3), 8)
+        && t.checkExpect(z.index(2), 3);
+  }
+
+  boolean testGridPositions(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+
+    return t.checkExpect(grid.size(), 6)
+        && t.checkExpect(grid.index(2, 1), 5)
+        && t.checkExpect(grid.xOf(5), 2)
+        && t.checkExpect(grid.yOf(5), 1)
+        && t.checkExpect(grid.cellAt(4), new Cell(1, 1))
+        && t.checkExpect(grid.inBounds(2, 1), true)
+        && t.checkExpect(grid.inBounds(3, 1), false)
+        && t.checkExpect(grid.inBounds(0, -1), false);
+  }
+
+  boolean testGridCarve(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 3);
+    grid.carve(0, 1);
+    grid.carve(4, 1);
+    ab.carveInto(grid);
+    hi.carveInto(grid);
+
+    return t.checkExpect(grid.openEast(0), true)
+        && t.checkExpect(grid.openSouth(1), true)
+        && t.checkExpect(grid.openEast(7), true)
+        && t.checkExpect(grid.openSouth(0), false)
+        && t.checkExpect(grid.hasPassage(1, 0), true)
+        && t.checkExpect(grid.hasPassage(1, 4), true)
+        && t.checkExpect(grid.hasPassage(8, 7), true)
+        && t.checkExpect(grid.hasPassage(0, 3), false)
+        // (2, 0) and (0, 1) are adjacent indices but not neighbors
+        && t.checkExpect(grid.hasPassage(2, 3), false)
+        && t.checkExpect(grid.passageCount(), 3)
+        && t.checkException(new IllegalArgumentException("The given cells are not neighbors"),
+            grid, "carve", 2, 3)
+        && t.checkException(new IllegalArgumentException("The given cells are not neighbors"),
+            grid, "carve", 0, 4);
+  }
+
+  boolean testWrappedEdgeList(Tester t) {
+    EdgeList edges = new EdgeList(new int[] {0, 1}, new int[] {1, 2}, new int[] {5, 3});
+
+    return t.checkExpect(edges.size(), 2)
+        && t.checkExpect(edges.to(1), 2)
+        && t.checkExpect(edges.sortedByWeight(), new int[] {1, 0})
+        && t.checkException(new IllegalStateException("This edge list is full"),
+            edges, "add", 2, 3, 4);
+  }
+
+  boolean testIntList(Tester t) {
+    IntList list = new IntList(1);
+    boolean empty = list.isEmpty();
+    for (int i = 0; i < 40; i += 1) {
+      list.add(i * 2);
+    }
+    boolean full = t.checkExpect(list.size(), 40)
+        && t.checkExpect(list.get(0), 0)
+        && t.checkExpect(list.get(39), 78)
+        && t.checkException(new IndexOutOfBoundsException("No item at index 40"),
+            list, "get", 40);
+    list.clear();
+    list.add(5);
+
+    return t.checkExpect(empty, true)
+        && full
+        && t.checkExpect(list.toArray(), new int[] {5})
+        && t.checkException(new IndexOutOfBoundsException("No item at index -1"),
+            list, "get", -1);
+  }
+
+  boolean testEdgeList(Tester t) {
+    EdgeList edges = new EdgeList(2);
+    edges.add(0, 3, 7);
+    edges.add(4, 5, 1);
+
+    ArrayList<Wall> walls = new ArrayList<Wall>();
+    walls.add(new Wall(a, d, 7));
+    walls.add(new Wall(e, f, 1));
+
+    return t.checkExpect(edges.size(), 2)
+        && t.checkExpect(edges.from(1), 4)
+        && t.checkExpect(edges.to(1), 5)
+        && t.checkExpect(edges.weight(0), 7)
+        && t.checkExpect(edges.wallAt(0, new MazeGrid(3, 3)), new Wall(a, d, 7))
+        && t.checkExpect(edges.toWalls(new MazeGrid(3, 3)), walls)
+        && t.checkException(new IllegalStateException("This edge list is full"),
+            edges, "add", 1, 2, 3);
+  }
+
+  boolean testSortedByWeight(Tester t) {
+    EdgeList edges = new EdgeList(5);
+    edges.add(0, 1, 4);
+    edges.add(1, 2, 0);
+    edges.add(2, 3, 4);
+    edges.add(3, 4, 2);
+    edges.add(4, 5, 0);
+
+    EdgeList negative = new EdgeList(4);
+    negative.add(0, 1, 3);
+    negative.add(1, 2, -2);
+    negative.add(2, 3, 3);
+    negative.add(3, 4, -1);
+
+    // spread too far apart to count, so ordered by a comparison sort instead
+    EdgeList spread = new EdgeList(4);
+    spread.add(0, 1, 1000000000);
+    spread.add(1, 2, -5);
+    spread.add(2, 3, 1000000000);
+    spread.add(3, 4, 7);
+
+    return t.checkExpect(edges.sortedByWeight(), new int[] {1, 4, 3, 0, 2})
+        && t.checkExpect(edges.countingSort(0, 5), new int[] {1, 4, 3, 0, 2})
+        && t.checkExpect(edges.keySort(), new int[] {1, 4, 3, 0, 2})
+        && t.checkExpect(negative.sortedByWeight(), new int[] {1, 3, 0, 2})
+        && t.checkExpect(spread.sortedByWeight(), new int[] {1, 3, 0, 2})
+        && t.checkExpect(new EdgeList(0).sortedByWeight(), new int[] {});
+  }
+
+  boolean testKruskalBuilder(Tester t) {
+    this.initTemp();
+    Maze maze = new Maze(3, 3, new Random());
+
+    // a 3 cell component and a lone cell with no edge to it
+    EdgeList disconnected = new EdgeList(3);
+    disconnected.add(0, 1, 2);
+    disconnected.add(1, 2, 1);
+    disconnected.add(0, 2, 0);
+
+    return t.checkExpect(new Kruskal().spanningTree(maze.toEdgeList(walls), 9),
+        new int[] {2, 8, 4, 6, 5, 9, 0, 7})
+        && t.checkExpect(new Kruskal().spanningTree(disconnected, 4), new int[] {2, 1})
+        && t.checkExpect(new Kruskal().spanningTree(new EdgeList(0), 1), new int[] {});
+  }
+
+  boolean testFilterKruskalMatchesKruskal(Tester t) {
+    Maze maze = new Maze(150, 90, new Random());
+    EdgeList edges = maze.createEdges();
+
+    // weights spread too far to count exercise the comparison sort as well
+    EdgeList spread = new EdgeList(edges.size());
+    Random r = new Random(7);
+    for (int edge = 0; edge < edges.size(); edge += 1) {
+      spread.add(edges.from(edge), edges.to(edge), r.nextInt());
+    }
+
+    int[] sequential = new Kruskal().spanningTree(edges, 150 * 90);
+    int[] spreadSequential = new Kruskal().spanningTree(spread, 150 * 90);
+
+    return t.checkExpect(sequential.length, 150 * 90 - 1)
+        && t.checkExpect(new FilterKruskal(64).spanningTree(edges, 150 * 90), sequential)
+        && t.checkExpect(new FilterKruskal(1000).spanningTree(edges, 150 * 90), sequential)
+        && t.checkExpect(new FilterKruskal().spanningTree(edges, 150 * 90), sequential)
+        && t.checkExpect(new FilterKruskal(64).spanningTree(spread, 150 * 90),
+            spreadSequential);
+  }
+
+  boolean testBoruvkaMatchesKruskal(Tester t) {
+    Maze maze = new Maze(150, 90, new Random());
+    EdgeList edges = maze.createEdges();
+
+    EdgeList spread = new EdgeList(edges.size());
+    Random r = new Random(11);
+    for (int edge = 0; edge < edges.size(); edge += 1) {
+      spread.add(edges.from(edge), edges.to(edge), r.nextInt());
+    }
+
+    EdgeList disconnected = new EdgeList(3);
+    disconnected.add(0, 1, 2);
+    disconnected.add(1, 2, 1);
+    disconnected.add(0, 2, 0);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    int[] sequential = new Kruskal().spanningTree(edges, 150 * 90);
+
+    boolean result = t.checkExpect(new Boruvka().spanningTree(edges, 150 * 90), sequential)
+        && t.checkExpect(new Boruvka(pool, 100).spanningTree(edges, 150 * 90), sequential)
+        && t.checkExpect(new Boruvka(pool, 100).spanningTree(spread, 150 * 90),
+            new Kruskal().spanningTree(spread, 150 * 90))
+        && t.checkExpect(new Boruvka(pool, 1).spanningTree(disconnected, 4), new int[] {2, 1})
+        && t.checkExpect(new Boruvka().spanningTree(new EdgeList(0), 1), new int[] {});
+    pool.shutdown();
+    return result;
+  }
+
+  boolean testBoruvkaMaze(Tester t) {
+    Maze maze = new Maze(60, 40, 4, new Boruvka());
+    EdgeList edges = maze.createEdges();
+
+    MazeGrid grid = new MazeGrid(60, 40);
+    for (int edge : new Boruvka().spanningTree(edges, 60 * 40)) {
+      grid.carve(edges.from(edge), edges.to(edge));
+    }
+
+    // a spanning tree: every cell is joined up by exactly cells - 1 passages
+    return t.checkExpect(this.isPerfect(grid), true);
+  }
+
+  // returns true if the passages of the given grid form a spanning tree of its cells
+  boolean isPerfect(MazeGrid grid) {
+    DisjointSet reached = new DisjointSet(grid.size());
+    for (int cell = 0; cell < grid.size(); cell += 1) {
+      if (grid.openEast(cell)) {
+        reached.union(cell, cell + 1);
+      }
+      if (grid.openSouth(cell)) {
+        reached.union(cell, cell + grid.width);
+      }
+    }
+    for (int cell = 1; cell < grid.size(); cell += 1) {
+      if (!reached.connected(0, cell)) {
+        return false;
+      }
+    }
+    return grid.passageCount() == grid.size() - 1;
+  }
+
+  boolean testEllerRows(Tester t) {
+    MazeGrid grid = new MazeGrid(40, 30);
+    EllerRows rows = new EllerRows(40, 5);
+    for (int y = 0; y < 30; y += 1) {
+      rows.nextRow(y == 29);
+      rows.carveInto(grid, y);
+    }
+
+    MazeGrid narrow = new MazeGrid(1, 5);
+    EllerRows column = new EllerRows(1, 5);
+    for (int y = 0; y < 5; y += 1) {
+      column.nextRow(y == 4);
+      column.carveInto(narrow, y);
+    }
+
+    MazeGrid single = new MazeGrid(6, 1);
+    EllerRows row = new EllerRows(6, 5);
+    row.nextRow(true);
+    row.carveInto(single, 0);
+
+    return t.checkExpect(this.isPerfect(grid), true)
+        && t.checkExpect(rows.rows(), 30L)
+        && t.checkExpect(this.isPerfect(narrow), true)
+        && t.checkExpect(this.isPerfect(single), true)
+        && t.checkExpect(row.openEast(5), false)
+        && t.checkExpect(row.openSouth(2), false)
+        && t.checkException(new IllegalArgumentException("A maze must have at least one cell"),
+            this, "makeEllerRows", 0);
+  }
+
+  // makes Eller rows of the given width for exception tests
+  EllerRows makeEllerRows(int width) {
+    return new EllerRows(width, 0);
+  }
+
+  boolean testEllerWriteTo(Tester t) {
+    StringBuilder out = new StringBuilder();
+    try {
+      new EllerRows(7, 2).writeTo(out, 5);
+    }
+    catch (IOException e) {
+      return t.checkExpect(e, null);
+    }
+    String[] lines = out.toString().split("\n");
+    MazeGrid streamed = this.parseRows(lines, 7, 5);
+
+    StringBuilder oneCell = new StringBuilder();
+    try {
+      new EllerRows(1, 2).writeTo(oneCell, 1);
+    }
+    catch (IOException e) {
+      return t.checkExpect(e, null);
+    }
+
+    return t.checkExpect(lines.length, 11)
+        && t.checkExpect(lines[0], "+--+--+--+--+--+--+--+")
+        && t.checkExpect(lines[10], "+--+--+--+--+--+--+--+")
+        && t.checkExpect(lines[1].endsWith("|"), true)
+        && t.checkExpect(lines[9].endsWith("|"), true)
+        && t.checkExpect(streamed.passageCount(), 7 * 5 - 1)
+        && t.checkExpect(this.isPerfect(streamed), true)
+        && t.checkExpect(oneCell.toString(), "+--+\n|  |\n+--+\n");
+  }
+
+  // returns the grid of the given width and height drawn by the given lines of
+  // EllerRows.writeTo, with a passage wherever a wall is missing
+  MazeGrid parseRows(String[] lines, int width, int height) {
+    MazeGrid grid = new MazeGrid(width, height);
+    for (int y = 0; y < height; y += 1) {
+      String walls = lines[2 * y + 1];
+      String floor = lines[2 * y + 2];
+      for (int x = 0; x < width; x += 1) {
+        int cell = grid.index(x, y);
+        if (x < width - 1 && walls.charAt(3 * x + 3) == ' ') {
+          grid.carve(cell, cell + 1);
+        }
+        if (y < height - 1 && floor.charAt(3 * x + 1) == ' ') {
+          grid.carve(cell, cell + width);
+        }
+      }
+    }
+    return grid;
+  }
+
+  boolean testFilterKruskalPivot(Tester t) {
+    long[] keys = new long[100];
+    for (int i = 0; i < 100; i += 1) {
+      keys[i] = 99 - i;
+    }
+    long pivot = new FilterKruskal().pivot(keys);
+
+    return t.checkExpect(pivot > 0 && pivot < 99, true);
+  }
+
+  boolean testDisjointSetRoot(Tester t) {
+    DisjointSet sets = new DisjointSet(4);
+    sets.union(0, 1);
+    sets.union(2, 3);
+    sets.union(1, 3);
+
+    return t.checkExpect(sets.root(3), sets.find(0))
+        && t.checkExpect(sets.root(2), sets.root(1));
+  }
+
+  boolean testDisjointSet(Tester t) {
+    DisjointSet sets = new DisjointSet(5);
+
+    boolean initially = t.checkExpect(sets.find(3), 3)
+        && t.checkExpect(sets.connected(0, 1), false);
+
+    boolean firstUnion = sets.union(0, 1);
+    boolean secondUnion = sets.union(2, 1);
+    boolean repeatUnion = sets.union(2, 0);
+
+    return initially
+        && t.checkExpect(firstUnion, true)
+        && t.checkExpect(secondUnion, true)
+        && t.checkExpect(repeatUnion, false)
+        // 2 is hung under the higher ranked root of {0, 1}
+        && t.checkExpect(sets.find(2), 0)
+        && t.checkExpect(sets.find(1), 0)
+        && t.checkExpect(sets.connected(1, 2), true)
+        && t.checkExpect(sets.connected(3, 4), false);
+  }
+
+  boolean testDisjointSetLongChain(Tester t) {
+    int n = 1000000;
+    DisjointSet sets = new DisjointSet(n);
+    for (int i = n - 1; i > 0; i -= 1) {
+      sets.union(i, i - 1);
+    }
+
+    return t.checkExpect(sets.connected(0, n - 1), true)
+        && t.checkExpect(sets.find(0), sets.find(n / 2));
+  }
+
+  boolean testGridLinks(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 3);
+    grid.carve(4, 1);
+    grid.carve(4, 5);
+    grid.carve(3, 4);
+
+    return t.checkExpect(grid.linksOf(4), MazeGrid.NORTH | MazeGrid.EAST | MazeGrid.WEST)
+        && t.checkExpect(grid.linksOf(1), MazeGrid.SOUTH)
+        && t.checkExpect(grid.linksOf(5), MazeGrid.WEST)
+        && t.checkExpect(grid.linksOf(3), MazeGrid.EAST)
+        && t.checkExpect(grid.linksOf(0), 0)
+        && t.checkExpect(grid.neighbor(4, MazeGrid.NORTH), 1)
+        && t.checkExpect(grid.neighbor(4, MazeGrid.EAST), 5)
+        && t.checkExpect(grid.neighbor(4, MazeGrid.SOUTH), 7)
+        && t.checkExpect(grid.neighbor(4, MazeGrid.WEST), 3)
+        && t.checkException(new IllegalArgumentException("Not a direction: 3"),
+            grid, "neighbor", 4, 3);
+  }
+
+  boolean testGridDrawWalls(Tester t) {
+    MazeGrid grid = new MazeGrid(2, 2);
+    wx.carveInto(grid);
+    xz.carveInto(grid);
+    yz.carveInto(grid);
+
+    WorldScene drawn = new WorldScene(30, 30);
+    grid.drawWalls(drawn);
+
+    WorldScene result = new WorldScene(30, 30);
+    w.drawMyWall(result, "south");
+
+    return t.checkExpect(drawn, result);
+  }
+
+  boolean testPaintWalls(Tester t) {
+    MazeGrid grid = new MazeGrid(2, 2);
+    wx.carveInto(grid);
+    xz.carveInto(grid);
+    yz.carveInto(grid);
+    PixelCanvas canvas = new PixelCanvas(30, 30);
+    grid.paintWalls(canvas, 15);
+
+    // only the wall south of w is closed
+    return t.checkExpect(canvas.colorAt(0, 15), Color.black)
+        && t.checkExpect(canvas.colorAt(14, 15), Color.black)
+        && t.checkExpect(canvas.colorAt(15, 15).getAlpha(), 0)
+        && t.checkExpect(canvas.colorAt(15, 5).getAlpha(), 0)
+        && t.checkExpect(canvas.colorAt(7, 7).getAlpha(), 0);
+  }
+
+  boolean testCameraView(Tester t) {
+    MazeGrid grid = new MazeGrid(100, 80);
+    Camera camera = new Camera(60, 45, 15);
+    camera.centerOn(grid, grid.index(50, 40));
+    int first = camera.firstColumn();
+    int across = camera.lastColumn(grid) - first + 1;
+    int down = camera.lastRow(grid) - camera.firstRow() + 1;
+
+    // the view cannot move past the corners of the maze
+    camera.centerOn(grid, 0);
+    int cornerColumn = camera.firstColumn();
+    camera.pan(grid, 1000, 1000);
+
+    // the view starts 7 pixels into column 48, so it ends 7 pixels into column 52
+    return t.checkExpect(first, 48)
+        && t.checkExpect(across, 5)
+        && t.checkExpect(down, 3)
+        && t.checkExpect(cornerColumn, 0)
+        && t.checkExpect(camera.lastColumn(grid), 99)
+        && t.checkExpect(camera.lastRow(grid), 79)
+        && t.checkConstructorException(
+            new IllegalArgumentException("Cells must be drawn between 2 and 60 pixels wide"),
+            "Camera", 60, 45, 61);
+  }
+
+  boolean testCameraRenderEdges(Tester t) {
+    MazeGrid grid = new MazeGrid(100, 100);
+    Camera camera = new Camera(600, 600, 15);
+    camera.centerOn(grid, grid.index(50, 50));
+    PixelCanvas canvas = camera.render(grid, cell -> Maze.VISITED);
+
+    // columns and rows 30 to 70 are in view, the last only partly
+    return t.checkExpect(camera.firstColumn(), 30)
+        && t.checkExpect(camera.lastColumn(grid), 70)
+        && t.checkExpect(camera.lastRow(grid), 70)
+        && t.checkExpect(canvas.colorAt(599, 300).getAlpha(), 255)
+        && t.checkExpect(canvas.colorAt(300, 599).getAlpha(), 255)
+        && t.checkExpect(canvas.colorAt(599, 599).getAlpha(), 255);
+  }
+
+  boolean testCameraZoom(Tester t) {
+    MazeGrid grid = new MazeGrid(1000, 1000);
+    Camera camera = new Camera(600, 600, 15);
+    camera.centerOn(grid, grid.index(500, 500));
+    camera.zoomIn(grid);
+    camera.zoomIn(grid);
+    int largest = camera.cellSize();
+    int middle = (camera.firstColumn() + camera.lastColumn(grid)) / 2;
+    for (int i = 0; i < 5; i += 1) {
+      camera.zoomOut(grid);
+    }
+    int smallest = camera.cellSize();
+    int smallestAcross = camera.lastColumn(grid) - camera.firstColumn() + 1;
+    boolean detailed = !camera.isOverview();
+    camera.zoomOut(grid);
+
+    return t.checkExpect(largest, 60)
+        && t.checkExpect(Math.abs(middle - 500) <= 1, true)
+        && t.checkExpect(smallest, 2)
+        && t.checkExpect(smallestAcross, 300)
+        && t.checkExpect(detailed, true)
+        && t.checkExpect(camera.isOverview(), true)
+        && t.checkExpect(camera.level(), 0)
+        && t.checkExpect(camera.lastColumn(grid) - camera.firstColumn() + 1, 600);
+  }
+
+  boolean testCameraOverview(Tester t) {
+    MazeGrid grid = new MazeGrid(5000, 3000);
+    Camera camera = new Camera(600, 400, 2);
+    for (int i = 0; i < 20; i += 1) {
+      camera.zoomOut(grid);
+    }
+    // the whole maze fits in one pixel at the top of the pyramid
+    int top = camera.level();
+    int across = camera.lastColumn(grid) - camera.firstColumn() + 1;
+    camera.zoomIn(grid);
+    camera.zoomIn(grid);
+    int inward = camera.level();
+    for (int i = 0; i < 20; i += 1) {
+      camera.zoomIn(grid);
+    }
+
+    return t.checkExpect(top, 13)
+        && t.checkExpect(across, 5000)
+        && t.checkExpect(inward, 11)
+        && t.checkExpect(camera.isOverview(), false)
+        && t.checkExpect(camera.cellSize(), 60);
+  }
+
+  boolean testMazePyramid(Tester t) {
+    // a 3x2 grid with passages 0-1, 1-4 and 4-5, so walls close 1-2, 0-3, 2-5 and 3-4
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.carve(0, 1);
+    grid.carve(1, 4);
+    grid.carve(4, 5);
+    MazePyramid pyramid = new MazePyramid(grid);
+    pyramid.markVisited(0);
+    pyramid.markVisited(4);
+    pyramid.markVisited(2);
+
+    return t.checkExpect(pyramid.levels(), 3)
+        && t.checkExpect(pyramid.blocksAcross(1), 2)
+        && t.checkExpect(pyramid.blocksDown(1), 1)
+        && t.checkExpect(pyramid.wallsIn(0, 0, 0), 1)
+        && t.checkExpect(pyramid.wallsIn(1, 0, 0), 3)
+        && t.checkExpect(pyramid.wallsIn(1, 1, 0), 1)
+        && t.checkExpect(pyramid.wallsIn(2, 0, 0), 4)
+        && t.checkExpect(pyramid.cellsIn(1, 1, 0), 2)
+        && t.checkExpect(pyramid.visitedIn(1, 0, 0), 2)
+        && t.checkExpect(pyramid.visitedIn(2, 0, 0), 3)
+        && t.checkExpect(pyramid.colorOf(0, 1, 1), pyramid.shade(16, 0))
+        && t.checkExpect(pyramid.colorOf(0, 0, 1), pyramid.shade(0, 8))
+        && t.checkExpect(pyramid.colorOf(0, 2, 0), pyramid.shade(16, 8));
+  }
+
+  boolean testMazePyramidSolution(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    grid.carve(0, 1);
+    grid.carve(1, 4);
+    grid.carve(4, 5);
+    MazePyramid pyramid = new MazePyramid(grid);
+    IntList path = new IntList();
+    path.add(5);
+    path.add(4);
+    path.add(1);
+    pyramid.markSolution(path);
+    int whole = pyramid.solutionIn(2, 0, 0);
+    Color offPath = pyramid.colorOf(0, 0, 0);
+    Color onPath = pyramid.colorOf(1, 1, 0);
+    pyramid.markSolution(new IntList());
+
+    return t.checkExpect(whole, 3)
+        && t.checkExpect(pyramid.solutionIn(1, 0, 0), 0)
+        && t.checkExpect(offPath, pyramid.shade(0, 8))
+        && t.checkExpect(onPath, Maze.SOLUTION)
+        && t.checkExpect(pyramid.colorOf(1, 1, 0), pyramid.shade(0, 4));
+  }
+
+  boolean testOverviewMarks(Tester t) {
+    Maze maze = new Maze(400, 300, 13);
+    maze.onKeyEvent("c");
+    for (int i = 0; i < 6; i += 1) {
+      maze.onKeyEvent("[");
+    }
+    maze.setStepsPerTick(Integer.MAX_VALUE);
+    maze.onKeyEvent("b");
+    maze.onTick();
+    Camera camera = maze.getCamera();
+    MazeGrid grid = maze.getGrid();
+    int level = camera.level();
+
+    // a cell of the solution away from the start and the end shows in its block
+    IntList path = maze.getFinalPath();
+    int middle = path.get(path.size() / 2);
+    PixelCanvas solvedView = maze.cameraView(ASearch.UNSET);
+    Color onPath = solvedView.colorAt(grid.xOf(middle) >> level, grid.yOf(middle) >> level);
+
+    Maze manual = new Maze(400, 300, 13);
+    manual.onKeyEvent("c");
+    for (int i = 0; i < 6; i += 1) {
+      manual.onKeyEvent("[");
+    }
+    manual.onKeyEvent("m");
+    manual.onKeyEvent("h");
+    // walk halfway to the exit, so the hint is in a block of its own
+    for (int i = 0; i < path.size() / 2; i += 1) {
+      int next = manual.hint();
+      int here = manual.getPlayer();
+      manual.movePlayer(grid.yOf(next) - grid.yOf(here), grid.xOf(next) - grid.xOf(here));
+    }
+    int hint = manual.hint();
+    PixelCanvas hintView = manual.cameraView(ASearch.UNSET);
+
+    return t.checkExpect(camera.isOverview(), true)
+        && t.checkExpect(onPath, Maze.SOLUTION)
+        && t.checkExpect(hintView.colorAt(grid.xOf(hint) >> level, grid.yOf(hint) >> level),
+            Maze.HINT);
+  }
+
+  boolean testOverviewHugeBlocks(Tester t) {
+    // the top block of a 12000x12000 maze counts 144M cells, too many to multiply by 16
+    // in int
+    MazePyramid pyramid = new MazePyramid(new MazeGrid(2, 2));
+    return t.checkExpect(pyramid.shadeOf(144000000, 144000000L), 16)
+        && t.checkExpect(pyramid.shadeOf(143999999, 2L * 144000000), 7)
+        && t.checkExpect(pyramid.shadeOf(0, 144000000L), 0);
+  }
+
+  boolean testOverviewFollowsSearch(Tester t) {
+    Maze maze = new Maze(300, 200, 21);
+    maze.onKeyEvent("c");
+    for (int i = 0; i < 6; i += 1) {
+      maze.onKeyEvent("[");
+    }
+    maze.setStepsPerTick(500);
+    maze.onKeyEvent("b");
+    maze.onTick();
+    maze.makeScene();
+    MazePyramid pyramid = maze.pyramid();
+    int top = pyramid.levels() - 1;
+    int counted = pyramid.visitedIn(top, 0, 0);
+    int visited = maze.getVisitLog().size();
+    maze.onTick();
+    maze.makeScene();
+
+    return t.checkExpect(maze.getCamera().isOverview(), true)
+        && t.checkExpect(counted, visited)
+        && t.checkExpect(pyramid.visitedIn(top, 0, 0), maze.getVisitLog().size())
+        && t.checkExpect(maze.pyramid() == pyramid, true);
+  }
+
+  boolean testCameraRender(Tester t) {
+    Maze maze = new Maze(200, 200, 7);
+    maze.onKeyEvent("m");
+    maze.onKeyEvent("c");
+    Camera camera = maze.getCamera();
+    int hint = maze.hint();
+    maze.movePlayer(maze.getGrid().yOf(hint), maze.getGrid().xOf(hint));
+    PixelCanvas view = camera.render(maze.getGrid(),
+        cell -> maze.colorOf(cell, hint, ASearch.UNSET));
+    maze.onKeyEvent("c");
+
+    // the camera stays in the top left corner, so the start and the player are in view
+    return t.checkExpect(camera.viewWidth, 600)
+        && t.checkExpect(camera.firstColumn(), 0)
+        && t.checkExpect(view.colorAt(7, 7), Cell.START_COLOR)
+        && t.checkExpect(view.colorAt(maze.getGrid().xOf(hint) * 15 + 7,
+            maze.getGrid().yOf(hint) * 15 + 7), Maze.PLAYER)
+        && t.checkExpect(maze.colorOf(500, hint, ASearch.UNSET), Maze.UNVISITED)
+        && t.checkExpect(maze.getCamera(), null);
+  }
+
+  boolean testImageCache(Tester t) {
+    ImageCache cache = new ImageCache();
+    WorldImage across = cache.rectangle(15, 1, Color.black);
+    WorldImage again = cache.rectangle(15, 1, Color.black);
+    WorldImage upright = cache.rectangle(1, 15, Color.black);
+    WorldImage red = cache.rectangle(15, 15, Color.red);
+    for (int i = 0; i < 100; i += 1) {
+      cache.rectangle(15, 15, Color.red);
+    }
+
+    // enough images to grow the table, each still found after it grows
+    ImageCache many = new ImageCache();
+    WorldImage first = many.rectangle(1, 1, Color.black);
+    for (int size = 2; size <= 60; size += 1) {
+      many.rectangle(size, size, Color.black);
+    }
+    boolean reused = many.rectangle(1, 1, Color.black) == first;
+
+    return t.checkExpect(across == again, true)
+        && t.checkExpect(across == upright, false)
+        && t.checkExpect(red, new RectangleImage(15, 15, OutlineMode.SOLID, Color.red))
+        && t.checkExpect(cache.created(), 3L)
+        && t.checkExpect(cache.hits(), 101L)
+        && t.checkExpect(many.created(), 60L)
+        && t.checkExpect(reused, true)
+        && t.checkException(new IllegalArgumentException("Cannot cache a rectangle of size -1x3"),
+            cache, "rectangle", -1, 3, Color.red);
+  }
+
+  boolean testPixelCanvas(Tester t) {
+    PixelCanvas canvas = new PixelCanvas(4, 3);
+    // the part of the rectangle off the canvas is clipped
+    canvas.fillRect(2, -1, 5, 3, Color.red);
+
+    return t.checkExpect(canvas.colorAt(2, 0), Color.red)
+        && t.checkExpect(canvas.colorAt(3, 1), Color.red)
+        && t.checkExpect(canvas.colorAt(3, 2).getAlpha(), 0)
+        && t.checkExpect(canvas.colorAt(1, 0).getAlpha(), 0)
+        && t.checkConstructorException(
+            new IllegalArgumentException("A canvas must have at least one pixel"),
+            "PixelCanvas", 0, 3);
+  }
+
+  boolean testPaintCell(Tester t) {
+    // no passages, so every wall is closed
+    MazeGrid grid = new MazeGrid(2, 2);
+    PixelCanvas canvas = new PixelCanvas(30, 30);
+    grid.paintCell(canvas, 3, 15, Color.red);
+    grid.paintCell(canvas, 0, 15, Color.blue);
+
+    return t.checkExpect(canvas.colorAt(16, 16), Color.red)
+        && t.checkExpect(canvas.colorAt(29, 29), Color.red)
+        && t.checkExpect(canvas.colorAt(15, 20), Color.black)
+        && t.checkExpect(canvas.colorAt(20, 15), Color.black)
+        // the first cell has no walls on it
+        && t.checkExpect(canvas.colorAt(0, 0), Color.blue)
+        && t.checkExpect(canvas.colorAt(14, 14), Color.blue)
+        && t.checkExpect(canvas.colorAt(15, 0).getAlpha(), 0);
+  }
+
+  boolean testFrameRepaintsOnlyChanges(Tester t) {
+    Maze maze = new Maze(12, 9, 10);
+    MazeFrame first = maze.frame();
+    maze.onKeyEvent("b");
+    for (int i = 0; i < 6; i += 1) {
+      maze.onTick();
+    }
+    int visited = maze.getVisitLog().size();
+    maze.makeScene();
+    int afterVisits = maze.frame().repaints();
+    maze.makeScene();
+    int afterNothing = maze.frame().repaints();
+
+    int cell = maze.getVisitLog().get(0);
+    int x = maze.getGrid().xOf(cell) * 15 + 7;
+    int y = maze.getGrid().yOf(cell) * 15 + 7;
+
+    return t.checkExpect(first == maze.frame(), false)
+        && t.checkExpect(afterVisits, visited)
+        && t.checkExpect(afterNothing, visited)
+        && t.checkExpect(maze.frame().colorAt(x, y), new Color(51, 204, 255));
+  }
+
+  boolean testFrameHintRepaintedOnlyWhenMoved(Tester t) {
+    Maze maze = new Maze(5, 5, 3);
+    maze.onKeyEvent("m");
+    maze.onKeyEvent("h");
+    int first = maze.frame().repaints();
+    maze.makeScene();
+    maze.makeScene();
+    int still = maze.frame().repaints();
+
+    // the player moves onto the hint, which is visited and moves on to the next cell
+    int hint = maze.hint();
+    maze.movePlayer(maze.getGrid().yOf(hint), maze.getGrid().xOf(hint));
+    int next = maze.hint();
+    MazeFrame frame = maze.frame();
+    int x = maze.getGrid().xOf(next) * 15 + 7;
+    int y = maze.getGrid().yOf(next) * 15 + 7;
+
+    return t.checkExpect(first, 1)
+        && t.checkExpect(still, 1)
+        && t.checkExpect(frame.colorAt(x, y), Maze.HINT)
+        && t.checkExpect(frame.colorAt(maze.getGrid().xOf(hint) * 15 + 7,
+            maze.getGrid().yOf(hint) * 15 + 7), Maze.UNVISITED);
+  }
+
+  boolean testFrameKeepsHighlight(Tester t) {
+    MazeFrame frame = new MazeFrame(new MazeGrid(2, 2), 15, Maze.UNVISITED);
+    frame.highlight(3, Maze.HINT);
+    frame.paint(3, Maze.VISITED);
+    Color highlighted = frame.colorAt(22, 22);
+    frame.clearHighlight();
+    return t.checkExpect(highlighted, Maze.HINT)
+        && t.checkExpect(frame.colorAt(22, 22), Maze.VISITED)
+        && t.checkExpect(frame.repaints(), 2);
+  }
+
+  boolean testFrameHint(Tester t) {
+    Maze maze = new Maze(5, 5, 3);
+    maze.onKeyEvent("h");
+    int hint = maze.hint();
+    int x = maze.getGrid().xOf(hint) * 15 + 7;
+    int y = maze.getGrid().yOf(hint) * 15 + 7;
+    Color shown = maze.frame().colorAt(x, y);
+    maze.onKeyEvent("h");
+    Color hidden = maze.frame().colorAt(x, y);
+    maze.makeMaze();
+
+    return t.checkExpect(shown, new Color(255, 153, 51))
+        && t.checkExpect(hidden, new Color(204, 204, 204))
+        && t.checkExpect(maze.frame().repaints(), 0);
+  }
+
   // -------------- IN DEQUE, STACK, AND QUEUE -------------- \\
 
 
@@ -2513,6 +6011,84 @@ class ExamplesMaze {
 
   // TODO add tests for contains
 
+  boolean testArrayQueue(Tester t) {
+    ArrayQueue<Cell> queue = new ArrayQueue<Cell>(2);
+    queue.add(a);
+    queue.add(b);
+    Cell first = queue.remove();
+    // c wraps around to the front of the buffer, then d forces it to grow
+    queue.add(c);
+    queue.add(d);
+
+    return t.checkExpect(first, a)
+        && t.checkExpect(queue.size(), 3)
+        && t.checkExpect(queue.remove(), b)
+        && t.checkExpect(queue.remove(), c)
+        && t.checkExpect(queue.remove(), d)
+        && t.checkExpect(queue.isEmpty(), true)
+        && t.checkException(new RuntimeException("Cannot remove an element from an empty list"),
+            queue, "remove");
+  }
+
+  boolean testArrayStack(Tester t) {
+    ArrayStack<Cell> stack = new ArrayStack<Cell>(1);
+    stack.add(a);
+    stack.add(b);
+    stack.add(c);
+
+    return t.checkExpect(stack.size(), 3)
+        && t.checkExpect(stack.remove(), c)
+        && t.checkExpect(stack.remove(), b)
+        && t.checkExpect(stack.isEmpty(), false)
+        && t.checkExpect(stack.remove(), a)
+        && t.checkExpect(stack.isEmpty(), true)
+        && t.checkException(new RuntimeException("Cannot remove an element from an empty list"),
+            stack, "remove");
+  }
+
+  boolean testIntQueue(Tester t) {
+    IntQueue queue = new IntQueue(2);
+    queue.add(1);
+    queue.add(2);
+    int first = queue.remove();
+    queue.add(3);
+    queue.add(4);
+
+    return t.checkExpect(first, 1)
+        && t.checkExpect(queue.size(), 3)
+        && t.checkExpect(queue.remove(), 2)
+        && t.checkExpect(queue.remove(), 3)
+        && t.checkExpect(queue.remove(), 4)
+        && t.checkExpect(queue.isEmpty(), true)
+        && t.checkException(new RuntimeException("Cannot remove an element from an empty list"),
+            queue, "remove");
+  }
+
+  boolean testIntStack(Tester t) {
+    IntStack stack = new IntStack(1);
+    stack.add(1);
+    stack.add(2);
+    stack.add(3);
+
+    return t.checkExpect(stack.size(), 3)
+        && t.checkExpect(stack.remove(), 3)
+        && t.checkExpect(stack.remove(), 2)
+        && t.checkExpect(stack.remove(), 1)
+        && t.checkExpect(stack.isEmpty(), true)
+        && t.checkException(new RuntimeException("Cannot remove an element from an empty list"),
+            stack, "remove");
+  }
+
+  boolean testLargeSearch(Tester t) {
+    // a frontier this big overflowed the recursive deque's size()
+    Maze maze = new Maze(300, 300, 4);
+    maze.onKeyEvent("d");
+    while (!maze.nextElem()) {
+      // keep searching
+    }
+    return t.checkExpect(maze.getFinalPath().get(0), 300 * 300 - 1);
+  }
+
   boolean testIsEmptyStack(Tester t) {
 
     Stack<Cell> nonEmpty = new Stack<Cell>();